@@ -0,0 +1,129 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import net.hor1zont.csv.comparator.twofiles.TwoFilesComparisonActions;
+import net.hor1zont.csv.comparator.twofiles.ValuesComparisionRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of files which are already loaded into memory with single-column and multi-column rules. Files are
+ * loaded once in {@link TwoFilesComparisonActions#initComparision(String)}, every invocation compares them again
+ * with {@link TwoFilesComparisonActions#checkFiles()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompareBenchmark {
+
+    @Param({"1", "4"})
+    public int threadsCount;
+
+    private TwoFilesComparisonActions singleColumnComparison;
+    private TwoFilesComparisonActions multiColumnComparison;
+
+    @Setup(Level.Trial)
+    public void load(GeneratedFiles files) {
+        String[] columns = files.generator.getColumns();
+        ValuesComparisionRule[] singleColumnRules = new ValuesComparisionRule[columns.length - 2];
+        for (int i = 2; i < columns.length; i++) {
+            singleColumnRules[i - 2] = new ValuesComparisionRule(columns[i], columns[i]);
+        }
+        String[] valueColumns = new String[columns.length - 2];
+        System.arraycopy(columns, 2, valueColumns, 0, valueColumns.length);
+        singleColumnComparison = createComparison(files, threadsCount, singleColumnRules);
+        multiColumnComparison = createComparison(
+                files,
+                threadsCount,
+                new ValuesComparisionRule[]{new ValuesComparisionRule(valueColumns, valueColumns)}
+        );
+        String baseFolder = files.folder.toString() + File.separator;
+        singleColumnComparison.initComparision(baseFolder);
+        multiColumnComparison.initComparision(baseFolder);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+        singleColumnComparison.releaseFiles();
+        multiColumnComparison.releaseFiles();
+    }
+
+    @Benchmark
+    public List<DetectedError> compareSingleColumnRules() {
+        return singleColumnComparison.checkFiles();
+    }
+
+    @Benchmark
+    public List<DetectedError> compareMultiColumnRule() {
+        return multiColumnComparison.checkFiles();
+    }
+
+    private static TwoFilesComparisonActions createComparison(
+            GeneratedFiles files,
+            int threadsCount,
+            ValuesComparisionRule[] valuesComparisionRules
+    ) {
+        String nameFileA = files.fileA.getFileName().toString();
+        String nameFileB = files.fileB.getFileName().toString();
+        return new TwoFilesComparisonActions() {
+
+            @Override
+            public int getComparisonThreads() {
+                return threadsCount;
+            }
+
+            @Override
+            public String getNameFileA() {
+                return nameFileA;
+            }
+
+            @Override
+            public String getNameFileB() {
+                return nameFileB;
+            }
+
+            @Override
+            public String getTestFolder() {
+                return "";
+            }
+
+            @Override
+            public String[] getKeysFileA() {
+                return GeneratedFiles.keys(true);
+            }
+
+            @Override
+            public String[] getKeysFileB() {
+                return GeneratedFiles.keys(true);
+            }
+
+            @Override
+            public ValuesComparisionRule[] getValuesComparisionRules() {
+                return valuesComparisionRules;
+            }
+
+            @Override
+            public String getReportFilename() {
+                return "";
+            }
+        };
+    }
+}
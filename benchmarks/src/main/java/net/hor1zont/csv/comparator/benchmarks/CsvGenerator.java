@@ -0,0 +1,122 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generator of synthetic pair of csv files to compare. Files have columns {@code group}, {@code id} and
+ * {@code column1}..{@code columnN}: key of line is {@code id} (single-column key) or {@code group} and {@code id}
+ * (multi-column key). File B contains the same lines as file A in the same order, but some values are changed.
+ * The same files are generated for the same parameters.
+ */
+public class CsvGenerator {
+
+    public static final String[] SINGLE_KEY = {"id"};
+    public static final String[] MULTI_KEY = {"group", "id"};
+
+    private static final long SEED = 42;
+
+    private int rowsCount = 100_000;
+    private int columnsCount = 10;
+    private int keyCardinality = 1_000;
+    private double duplicateRate = 0;
+    private double mismatchRate = 0.01;
+
+    /**
+     * @param rowsCount count of lines in every file (without title line)
+     */
+    public CsvGenerator setRowsCount(int rowsCount) {
+        this.rowsCount = rowsCount;
+        return this;
+    }
+
+    /**
+     * @param columnsCount count of columns including key columns, at least 3
+     */
+    public CsvGenerator setColumnsCount(int columnsCount) {
+        this.columnsCount = Math.max(3, columnsCount);
+        return this;
+    }
+
+    /**
+     * @param keyCardinality count of distinct values of {@code group} column
+     */
+    public CsvGenerator setKeyCardinality(int keyCardinality) {
+        this.keyCardinality = Math.max(1, keyCardinality);
+        return this;
+    }
+
+    /**
+     * @param duplicateRate part of lines which have the same key as the previous line
+     */
+    public CsvGenerator setDuplicateRate(double duplicateRate) {
+        this.duplicateRate = duplicateRate;
+        return this;
+    }
+
+    /**
+     * @param mismatchRate part of lines of file B which have one value different from file A
+     */
+    public CsvGenerator setMismatchRate(double mismatchRate) {
+        this.mismatchRate = mismatchRate;
+        return this;
+    }
+
+    /**
+     * @return names of all columns
+     */
+    public String[] getColumns() {
+        String[] columns = new String[columnsCount];
+        columns[0] = MULTI_KEY[0];
+        columns[1] = MULTI_KEY[1];
+        for (int i = 2; i < columnsCount; i++) {
+            columns[i] = "column" + (i - 1);
+        }
+        return columns;
+    }
+
+    /**
+     * @return values of line of file A
+     */
+    public String[] generateLine(int lineNumber, Random random) {
+        int id = lineNumber > 0 && random.nextDouble() < duplicateRate ? lineNumber - 1 : lineNumber;
+        String[] values = new String[columnsCount];
+        values[0] = "group-" + id % keyCardinality;
+        values[1] = String.valueOf(id);
+        for (int i = 2; i < columnsCount; i++) {
+            values[i] = "value-" + (i - 1) + "-" + random.nextInt(1_000_000);
+        }
+        return values;
+    }
+
+    /**
+     * Write file A and file B
+     */
+    public void generate(Path fileA, Path fileB) throws IOException {
+        Random random = new Random(SEED);
+        CSVFormat format = CSVFormat.EXCEL.withHeader(getColumns());
+        try (
+                BufferedWriter writerA = Files.newBufferedWriter(fileA, CsvUtil.DEFAULT_FILE_CHARSET);
+                BufferedWriter writerB = Files.newBufferedWriter(fileB, CsvUtil.DEFAULT_FILE_CHARSET);
+                CSVPrinter printerA = format.print(writerA);
+                CSVPrinter printerB = format.print(writerB)
+        ) {
+            for (int i = 0; i < rowsCount; i++) {
+                String[] values = generateLine(i, random);
+                printerA.printRecord((Object[]) values);
+                if (random.nextDouble() < mismatchRate) {
+                    int column = 2 + random.nextInt(columnsCount - 2);
+                    values[column] = values[column] + "-changed";
+                }
+                printerB.printRecord((Object[]) values);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Pair of synthetic files which is generated once for every set of parameters, see {@link CsvGenerator}
+ */
+@State(Scope.Benchmark)
+public class GeneratedFiles {
+
+    @Param("100000")
+    public int rowsCount;
+
+    @Param("10")
+    public int columnsCount;
+
+    @Param("1000")
+    public int keyCardinality;
+
+    @Param("0.001")
+    public double duplicateRate;
+
+    @Param("0.01")
+    public double mismatchRate;
+
+    public CsvGenerator generator;
+    public Path folder;
+    public Path fileA;
+    public Path fileB;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        generator = new CsvGenerator()
+                .setRowsCount(rowsCount)
+                .setColumnsCount(columnsCount)
+                .setKeyCardinality(keyCardinality)
+                .setDuplicateRate(duplicateRate)
+                .setMismatchRate(mismatchRate);
+        folder = Files.createTempDirectory("csv-comparator-benchmark");
+        fileA = folder.resolve("fileA.csv");
+        fileB = folder.resolve("fileB.csv");
+        generator.generate(fileA, fileB);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(fileA);
+        Files.deleteIfExists(fileB);
+        Files.deleteIfExists(folder);
+    }
+
+    /**
+     * @return key columns for single-column or multi-column key
+     */
+    public static String[] keys(boolean multiColumnKey) {
+        return multiColumnKey ? CsvGenerator.MULTI_KEY : CsvGenerator.SINGLE_KEY;
+    }
+
+    /**
+     * @return new loader of files
+     */
+    public CsvUtil csvUtil() {
+        return new CsvUtil();
+    }
+}
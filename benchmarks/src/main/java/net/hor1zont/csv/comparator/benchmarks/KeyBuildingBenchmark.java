@@ -0,0 +1,68 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building of keys for already parsed lines: by column names and by resolved column indexes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyBuildingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean multiColumnKey;
+
+    private List<CSVRecord> lines;
+    private String[] keys;
+    private int[] keyColumns;
+
+    @Setup(Level.Trial)
+    public void parse(GeneratedFiles files) throws IOException {
+        keys = GeneratedFiles.keys(multiColumnKey);
+        try (CSVParser parser = files.csvUtil().openCsvFile(files.fileA.toString(), null)) {
+            keyColumns = CsvUtil.resolveKeyColumns(CsvHeader.of(parser), keys, files.fileA.toString());
+            lines = parser.getRecords();
+        }
+    }
+
+    @Benchmark
+    public void buildKeyByNames(Blackhole blackhole) {
+        for (CSVRecord line : lines) {
+            CompositeKey key = CsvUtil.buildKey(line, keys, "_");
+            blackhole.consume(key);
+        }
+    }
+
+    @Benchmark
+    public void buildKeyByIndexes(Blackhole blackhole) {
+        for (CSVRecord line : lines) {
+            CompositeKey key = CsvUtil.buildKey(line, keyColumns, "_");
+            blackhole.consume(key);
+        }
+    }
+}
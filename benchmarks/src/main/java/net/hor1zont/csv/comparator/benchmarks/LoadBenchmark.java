@@ -0,0 +1,68 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.MappedCsvLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of file into memory: parsing of lines, building of keys and filling of Map
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean multiColumnKey;
+
+    /**
+     * More than 1 thread loads file with {@link MappedCsvLoader}
+     */
+    @Param({"1", "4"})
+    public int loadThreads;
+
+    @Benchmark
+    public Map<CompositeKey, Map<String, String>> convertFileToFormattedMap(GeneratedFiles files) {
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        return new CsvUtil(loadThreads).convertFileToFormattedMap(
+                files.fileA.toString(),
+                GeneratedFiles.keys(multiColumnKey),
+                "_",
+                null,
+                null,
+                detectedErrors::add
+        );
+    }
+
+    @Benchmark
+    public Map<CompositeKey, Map<String, String>> convertFileToHashIndex(GeneratedFiles files) {
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        return new CsvUtil(loadThreads).convertFileToHashIndex(
+                files.fileA.toString(),
+                GeneratedFiles.keys(multiColumnKey),
+                "_",
+                null,
+                detectedErrors::add,
+                null
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import net.hor1zont.csv.comparator.utils.CsvReportWriter;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of report file with detected errors: all errors at once and one by one with {@link CsvReportWriter}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    @Param("100000")
+    public int errorsCount;
+
+    private List<DetectedError> detectedErrors;
+    private Path reportFile;
+
+    @Setup(Level.Trial)
+    public void createErrors() throws IOException {
+        detectedErrors = new ArrayList<>(errorsCount);
+        for (int i = 0; i < errorsCount; i++) {
+            detectedErrors.add(new DetectedError("values are not the expected")
+                    .setPrimaryKeyA(String.valueOf(i))
+                    .setValueA("value-" + i)
+                    .setTitleColumnA(new String[]{"column1", "column2"})
+                    .setFileA("fileA.csv")
+                    .setPrimaryKeyB(String.valueOf(i))
+                    .setValueB("value-" + i + "-changed")
+                    .setTitleColumnB(new String[]{"column1", "column2"})
+                    .setFileB("fileB.csv"));
+        }
+        reportFile = Files.createTempFile("csv-comparator-report", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteReport() throws IOException {
+        Files.deleteIfExists(reportFile);
+    }
+
+    @Benchmark
+    public void writeDetectedErrorsToCsvFile() {
+        CsvUtil.writeDetectedErrorsToCsvFile(reportFile.toString(), detectedErrors, null);
+    }
+
+    @Benchmark
+    public void writeWithCsvReportWriter() {
+        try (CsvReportWriter report = new CsvReportWriter(reportFile.toString(), null, false)) {
+            detectedErrors.forEach(report::add);
+        }
+    }
+}
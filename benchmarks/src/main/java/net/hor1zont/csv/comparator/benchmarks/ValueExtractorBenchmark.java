@@ -0,0 +1,67 @@
+package net.hor1zont.csv.comparator.benchmarks;
+
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import net.hor1zont.csv.comparator.twofiles.ColumnNotFoundException;
+import net.hor1zont.csv.comparator.twofiles.ValueExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of joined values from one line: by column names and by resolved column indexes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueExtractorBenchmark {
+
+    @Param({"1", "3"})
+    public int extractedColumnsCount;
+
+    @Param("10")
+    public int columnsCount;
+
+    private final ValueExtractor valueExtractor = new ValueExtractor();
+    private CsvRow row;
+    private String[] columns;
+    private int[] columnIndexes;
+
+    @Setup(Level.Trial)
+    public void createRow() {
+        CsvGenerator generator = new CsvGenerator().setColumnsCount(columnsCount);
+        CsvHeader header = new CsvHeader(generator.getColumns());
+        row = new CsvRow(header, generator.generateLine(1, new Random(1)));
+        columns = new String[extractedColumnsCount];
+        columnIndexes = new int[extractedColumnsCount];
+        for (int i = 0; i < extractedColumnsCount; i++) {
+            columnIndexes[i] = columnsCount - 1 - i;
+            columns[i] = header.getName(columnIndexes[i]);
+        }
+    }
+
+    @Benchmark
+    public String extractValueByNames() throws ColumnNotFoundException {
+        return valueExtractor.extractValue(row, columns);
+    }
+
+    @Benchmark
+    public String extractValueByIndexes() throws ColumnNotFoundException {
+        return valueExtractor.extractValue(row, columnIndexes);
+    }
+}
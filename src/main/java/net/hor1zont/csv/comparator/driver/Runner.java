@@ -1,15 +1,15 @@
 package net.hor1zont.csv.comparator.driver;
 
-import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import net.hor1zont.csv.comparator.twofiles.AsyncErrorSink;
+import net.hor1zont.csv.comparator.twofiles.ComparisonMetrics;
+import net.hor1zont.csv.comparator.twofiles.DifferenceStatistics;
+import net.hor1zont.csv.comparator.twofiles.LimitingErrorSink;
 import net.hor1zont.csv.comparator.twofiles.TwoFilesComparisonActions;
 import net.hor1zont.csv.comparator.twofiles.actions.ComparisonActionExample;
-import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.CsvReportWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Main class o run this util to compare 2 CSV files with specified rules
  */
@@ -19,39 +19,115 @@ public class Runner {
 
     public static void main(String[] args) {
         TwoFilesComparisonActions twoFilesComparisonActions = testToRun();
-        List<DetectedError> detectedErrors = new ArrayList<>();
-        List<DetectedError> initDetectedErrors = twoFilesComparisonActions.initComparision(baseFolder());
-        detectedErrors.addAll(initDetectedErrors);
 
-        if (detectedErrors.size() > 1 && twoFilesComparisonActions.getActionsOnDifference().stopOnDuplicationFound()) {
+        // Errors are written into report file as soon as they are found, they are not kept in memory
+        CsvReportWriter report = new CsvReportWriter(
+                baseFolder() + twoFilesComparisonActions.getTestFolder() + twoFilesComparisonActions.getReportFilename(),
+                twoFilesComparisonActions.getReportFileCharset(),
+                true
+        );
+        // Report file is written in separate thread at the same time with comparison
+        AsyncErrorSink asyncReport = new AsyncErrorSink(report);
+        LimitingErrorSink limitedErrors = twoFilesComparisonActions.getLimitingErrorSink(
+                twoFilesComparisonActions.isDetailedReportEnabled() ? asyncReport : detectedError -> {
+                }
+        );
+        DifferenceStatistics detectedErrors = twoFilesComparisonActions.getDifferenceStatistics(limitedErrors);
+        if (twoFilesComparisonActions.getProgressReporter() != null) {
+            twoFilesComparisonActions.getProgressReporter().setDifferencesCount(detectedErrors::getErrorsCount);
+        }
+        Throwable failure = null;
+        try {
+            twoFilesComparisonActions.initComparision(baseFolder(), detectedErrors);
+
+            if (detectedErrors.getErrorsCount() > 1 && twoFilesComparisonActions.getActionsOnDifference().stopOnDuplicationFound()) {
 
-            // There are keys duplication in target files. Next process can be incorrect. Stop progress - files should be
-            // checked before next run. This can be disabled be overriding stopOnDuplicationFound method in ActionsOnDifference class.
-            // Object of this class is available in TwoFilesComparisonActions object.
-            reportResults(twoFilesComparisonActions, detectedErrors);
-            throw new IllegalStateException("Duplication is found: stop progress. Check logs of report file for more details");
+                // There are keys duplication in target files. Next process can be incorrect. Stop progress - files should be
+                // checked before next run. This can be disabled be overriding stopOnDuplicationFound method in ActionsOnDifference class.
+                // Object of this class is available in TwoFilesComparisonActions object.
+                throw new IllegalStateException("Duplication is found: stop progress. Check logs of report file for more details");
+            }
+            twoFilesComparisonActions.checkFiles(detectedErrors);
+        } catch (RuntimeException | Error ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+
+            // every sink is closed even if closing of previous one fails, so the tail of report is not lost
+            runAll(
+                    failure,
+                    twoFilesComparisonActions::releaseFiles,
+                    limitedErrors::close,
+                    asyncReport::close,
+                    report::close,
+                    () -> reportStatistics(twoFilesComparisonActions, detectedErrors),
+                    () -> reportMetrics(twoFilesComparisonActions, report)
+            );
         }
-        List<DetectedError> comparisonDetectedErrors = twoFilesComparisonActions.checkFiles();
-        detectedErrors.addAll(comparisonDetectedErrors);
-        if (detectedErrors.size() == 0) {
+        if (detectedErrors.getErrorsCount() == 0) {
             LOG.info("No differences were found");
             // OK - no errors
             System.exit(0);
-        } else {
-            reportResults(twoFilesComparisonActions, detectedErrors);
         }
     }
 
-    private static void reportResults(TwoFilesComparisonActions twoFilesComparisonActions, List<DetectedError> detectedErrors) {
-        LOG.warn(String.format("%s differences were found:", detectedErrors.size()));
-        for (int i = 0; i < detectedErrors.size(); i++) {
-            LOG.info(i + 1 + ": " + detectedErrors.get(i).toString());
+    /**
+     * Run all actions even if some of them fail. Failures are added to {@code failure} of comparison as suppressed,
+     * the first failure is thrown if comparison did not fail.
+     */
+    private static void runAll(Throwable failure, Runnable... actions) {
+        Throwable firstFailure = null;
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException | Error ex) {
+                if (failure != null) {
+                    failure.addSuppressed(ex);
+                } else if (firstFailure == null) {
+                    firstFailure = ex;
+                } else {
+                    firstFailure.addSuppressed(ex);
+                }
+            }
+        }
+        if (firstFailure instanceof RuntimeException) {
+            throw (RuntimeException) firstFailure;
+        }
+        if (firstFailure != null) {
+            throw (Error) firstFailure;
+        }
+    }
+
+    private static void reportStatistics(TwoFilesComparisonActions twoFilesComparisonActions, DifferenceStatistics statistics) {
+        if (statistics.getErrorsCount() == 0) {
+            return;
+        }
+        statistics.log();
+        if (twoFilesComparisonActions.getStatisticsReportFilename() != null) {
+            statistics.writeToCsvFile(
+                    baseFolder() + twoFilesComparisonActions.getTestFolder() + twoFilesComparisonActions.getStatisticsReportFilename(),
+                    twoFilesComparisonActions.getReportFileCharset()
+            );
+        }
+    }
+
+    private static void reportMetrics(TwoFilesComparisonActions twoFilesComparisonActions, CsvReportWriter report) {
+        ComparisonMetrics metrics = twoFilesComparisonActions.getComparisonMetrics();
+        if (twoFilesComparisonActions.isDetailedReportEnabled()) {
+            metrics.addPhase(
+                    ComparisonMetrics.Phase.WRITE_REPORT,
+                    report.getWriteTimeNanos(),
+                    report.getErrorsCount(),
+                    report.getWrittenBytes()
+            );
+        }
+        metrics.log();
+        if (twoFilesComparisonActions.getMetricsReportFilename() != null) {
+            metrics.writeToJsonFile(
+                    baseFolder() + twoFilesComparisonActions.getTestFolder() + twoFilesComparisonActions.getMetricsReportFilename(),
+                    twoFilesComparisonActions.getReportFileCharset()
+            );
         }
-        CsvUtil.writeDetectedErrorsToCsvFile(
-                baseFolder() + twoFilesComparisonActions.getTestFolder() + twoFilesComparisonActions.getReportFilename(),
-                detectedErrors,
-                twoFilesComparisonActions.getReportFileCharset()
-        );
     }
 
     /**
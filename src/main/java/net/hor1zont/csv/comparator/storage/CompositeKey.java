@@ -0,0 +1,93 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Key of csv line: values of key columns. Keys are compared value by value, so keys with different values are never
+ * equal even if separator is a part of value (e.g. {@code ("a_b", "c")} and {@code ("a", "b_c")} with separator
+ * {@code "_"}). Hash is calculated once. Values joined with separator are used only to display key in report and for
+ * custom key comparators.
+ */
+public final class CompositeKey implements Comparable<CompositeKey> {
+
+    private final String[] values;
+    private final String separator;
+    private final int hash;
+
+    /**
+     * Values joined with separator, created on first usage
+     */
+    private String joinedValues;
+
+    public CompositeKey(@NotNull String[] values, @NotNull String separator) {
+        this.values = values;
+        this.separator = separator;
+        this.hash = Arrays.hashCode(values);
+    }
+
+    /**
+     * @return comparator for keys: keys are compared value by value if {@code keyComparator} is {@code null},
+     * otherwise {@code keyComparator} is used to compare keys joined with separator
+     */
+    public static Comparator<CompositeKey> comparator(@Nullable Comparator<String> keyComparator) {
+        if (keyComparator == null) {
+            return Comparator.naturalOrder();
+        }
+        return (key1, key2) -> keyComparator.compare(key1.toString(), key2.toString());
+    }
+
+    /**
+     * @return count of key values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public String get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int compareTo(@NotNull CompositeKey other) {
+        int length = Math.min(values.length, other.values.length);
+        for (int i = 0; i < length; i++) {
+            int comparison = values[i].compareTo(other.values[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(values.length, other.values.length);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CompositeKey)) {
+            return false;
+        }
+        CompositeKey otherKey = (CompositeKey) other;
+        return hash == otherKey.hash && Arrays.equals(values, otherKey.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @return key values joined with separator
+     */
+    @Override
+    public String toString() {
+        if (joinedValues == null) {
+            joinedValues = values.length == 1 ? values[0] : String.join(separator, values);
+        }
+        return joinedValues;
+    }
+}
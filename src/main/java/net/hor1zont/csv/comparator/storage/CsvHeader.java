@@ -0,0 +1,80 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.apache.commons.csv.CSVParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Title line of csv file: column names and their indexes. One instance is shared by all lines of the file
+ */
+public final class CsvHeader {
+
+    private final String[] names;
+
+    /**
+     * Index of every column by its name. If several columns have the same name then the last one is used (like in
+     * {@link org.apache.commons.csv.CSVRecord#toMap()})
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * Unique column names in order of columns
+     */
+    private final List<String> uniqueNames;
+
+    public CsvHeader(@NotNull String[] names) {
+        this.names = names.clone();
+        this.indexes = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+        List<String> uniqueNames = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (indexes.get(names[i]) == i) {
+                uniqueNames.add(names[i]);
+            }
+        }
+        this.uniqueNames = Collections.unmodifiableList(uniqueNames);
+    }
+
+    /**
+     * @return title line of file read by {@code parser}
+     */
+    public static CsvHeader of(@NotNull CSVParser parser) {
+        return new CsvHeader(parser.getHeaderNames().toArray(new String[0]));
+    }
+
+    /**
+     * @return index of column or -1 if there is no column with such name
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * @return count of columns
+     */
+    public int size() {
+        return names.length;
+    }
+
+    List<String> getUniqueNames() {
+        return uniqueNames;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
@@ -0,0 +1,130 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.apache.commons.csv.CSVRecord;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact representation of one csv line: column names are stored once in {@link CsvHeader} and line keeps only
+ * array of values. Line is read-only Map where key is column title and value is column value, the same as
+ * {@link CSVRecord#toMap()}, but without a copy of column names and Map entries for every line. Subclasses can keep
+ * values in another place (see {@link OffHeapRowStore}): they override {@link #get(int)} and
+ * {@link #getValuesCount()}.
+ */
+public class CsvRow extends AbstractMap<String, String> {
+
+    private final CsvHeader header;
+    private final String[] values;
+
+    public CsvRow(@NotNull CsvHeader header, @NotNull String[] values) {
+        this.header = header;
+        this.values = values;
+    }
+
+    /**
+     * Constructor for lines which keep values in another place
+     */
+    protected CsvRow(@NotNull CsvHeader header) {
+        this.header = header;
+        this.values = null;
+    }
+
+    /**
+     * @return line with values of {@code record}
+     */
+    public static CsvRow of(@NotNull CsvHeader header, @NotNull CSVRecord record) {
+        String[] values = new String[record.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = record.get(i);
+        }
+        return new CsvRow(header, values);
+    }
+
+    public CsvHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return value of column with {@code index} or {@code null} if line is shorter than title line
+     */
+    public String get(int index) {
+        return index >= 0 && index < values.length ? values[index] : null;
+    }
+
+    /**
+     * @return count of values in line, it can differ from count of columns in title line
+     */
+    public int getValuesCount() {
+        return values.length;
+    }
+
+    @Override
+    public String get(Object key) {
+        return key instanceof String ? get(header.indexOf((String) key)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntriesIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (String name : header.getUniqueNames()) {
+                    if (header.indexOf(name) < getValuesCount()) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterates over columns which have values in this line
+     */
+    private class EntriesIterator implements Iterator<Entry<String, String>> {
+
+        private final List<String> names = header.getUniqueNames();
+        private int nextName = findNextName(0);
+
+        @Override
+        public boolean hasNext() {
+            return nextName < names.size();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String name = names.get(nextName);
+            nextName = findNextName(nextName + 1);
+            return new SimpleImmutableEntry<>(name, get(header.indexOf(name)));
+        }
+
+        private int findNextName(int from) {
+            int index = from;
+            while (index < names.size() && header.indexOf(names.get(index)) >= getValuesCount()) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package net.hor1zont.csv.comparator.storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Hash table with open addressing (linear probing) to find lines by key. Entries are stored in arrays in order of
+ * insertion, table contains only indexes of entries, so iteration order is the order of insertion (e.g. order of
+ * lines in file). {@code null} keys are not supported. Not thread safe for modifications, but can be read in several
+ * threads after filling.
+ */
+public final class HashIndex<K, V> extends AbstractMap<K, V> {
+
+    private static final int EMPTY = -1;
+    private static final int REMOVED = -2;
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Keys and values of entries in order of insertion, key is {@code null} for removed entry
+     */
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int entriesCount;
+    private int size;
+
+    /**
+     * Indexes of entries, table is at most half full
+     */
+    private int[] table;
+
+    public HashIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    public HashIndex(int expectedSize) {
+        allocate(Math.max(expectedSize, MIN_CAPACITY));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && find(key, hash(key)) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int position = find(key, hash(key));
+        return position < 0 ? null : (V) values[table[position]];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        int hash = hash(key);
+        int position = find(key, hash);
+        if (position >= 0) {
+            int entry = table[position];
+            V previousValue = (V) values[entry];
+            values[entry] = value;
+            return previousValue;
+        }
+        if (entriesCount == keys.length) {
+            rehash();
+        }
+        insert(entriesCount, hash);
+        keys[entriesCount] = key;
+        values[entriesCount] = value;
+        hashes[entriesCount] = hash;
+        entriesCount++;
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int position = find(key, hash(key));
+        if (position < 0) {
+            return null;
+        }
+        int entry = table[position];
+        V previousValue = (V) values[entry];
+        keys[entry] = null;
+        values[entry] = null;
+        table[position] = REMOVED;
+        size--;
+        return previousValue;
+    }
+
+    @Override
+    public void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return position of key in table or {@code -1} if key is not found
+     */
+    private int find(Object key, int hash) {
+        int mask = table.length - 1;
+        for (int position = hash & mask; ; position = (position + 1) & mask) {
+            int entry = table[position];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != REMOVED && hashes[entry] == hash && key.equals(keys[entry])) {
+                return position;
+            }
+        }
+    }
+
+    private void insert(int entry, int hash) {
+        int mask = table.length - 1;
+        int position = hash & mask;
+        while (table[position] >= 0) {
+            position = (position + 1) & mask;
+        }
+        table[position] = entry;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        table = new int[Integer.highestOneBit(capacity - 1) << 2];
+        Arrays.fill(table, EMPTY);
+        entriesCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Drop removed entries and grow arrays if necessary
+     */
+    private void rehash() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldEntriesCount = entriesCount;
+        allocate(Math.max(size * 2, MIN_CAPACITY));
+        for (int i = 0; i < oldEntriesCount; i++) {
+            if (oldKeys[i] != null) {
+                insert(entriesCount, oldHashes[i]);
+                keys[entriesCount] = oldKeys[i];
+                values[entriesCount] = oldValues[i];
+                hashes[entriesCount] = oldHashes[i];
+                entriesCount++;
+            }
+        }
+        size = entriesCount;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int next = skipRemoved(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < entriesCount;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = skipRemoved(next + 1);
+            return new IndexEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0 || keys[last] == null) {
+                throw new IllegalStateException();
+            }
+            HashIndex.this.remove(keys[last]);
+        }
+
+        private int skipRemoved(int entry) {
+            while (entry < entriesCount && keys[entry] == null) {
+                entry++;
+            }
+            return entry;
+        }
+    }
+
+    private final class IndexEntry implements Entry<K, V> {
+
+        private final int entry;
+        private final K key;
+
+        @SuppressWarnings("unchecked")
+        IndexEntry(int entry) {
+            this.entry = entry;
+            this.key = (K) keys[entry];
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[entry];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            V previousValue = (V) values[entry];
+            values[entry] = value;
+            return previousValue;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> otherEntry = (Map.Entry<?, ?>) other;
+            return key.equals(otherEntry.getKey()) && Objects.equals(getValue(), otherEntry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Map of lines by key which keeps lines out of Java heap, so count of lines is limited by disk instead of heap and
+ * loaded lines do not slow down garbage collection. Keys and values of lines are encoded in UTF-8 into segments of
+ * memory-mapped scratch file, hash table of key index is kept in direct buffers. Only {@link CsvRow} lines with the
+ * same title line can be stored.
+ * <p>
+ * Returned lines are views of stored lines: value is decoded only when it is requested (e.g. by
+ * {@link CsvRow#get(int)} of comparison rule). Lines are iterated in order of insertion like in {@link HashIndex}
+ * (line which replaces line with the same key is moved to the end).
+ * Not thread safe for modifications, but can be read in several threads after filling. Scratch file is removed in
+ * {@link #close()}, lines cannot be read after it.
+ */
+public final class OffHeapRowStore extends AbstractMap<CompositeKey, Map<String, String>> implements Closeable {
+
+    /**
+     * Size of segment of scratch file is 64 MB, line should fit into one segment
+     */
+    private static final int SEGMENT_BITS = 26;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+    /**
+     * Table of key index is allocated by pages of 1M slots
+     */
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+
+    private static final byte LIVE_LINE = 0;
+    private static final byte REMOVED_LINE = 1;
+
+    /**
+     * Line is stored as: state byte, count of key parts, count of values, offsets of ends of all fields and UTF-8
+     * bytes of all fields
+     */
+    private static final int FIELDS_COUNT_OFFSET = 1;
+    private static final int FIELD_ENDS_OFFSET = 9;
+
+    private final String keySeparator;
+    private final FileChannel scratchFile;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * Position after the last line in every segment
+     */
+    private int[] segmentLimits = new int[16];
+
+    private CsvHeader header;
+    private int size;
+
+    /**
+     * Hash table of key index: address of line + 1 (0 is empty slot) and hash of key in every slot, table is at
+     * most half full
+     */
+    private LongBuffer[] addressPages;
+    private IntBuffer[] hashPages;
+    private long capacity;
+    private long usedSlots;
+
+    /**
+     * @param keySeparator separator to display keys, see {@link CompositeKey}
+     * @param scratchFile file to store lines, it is created or truncated and is removed in {@link #close()}
+     */
+    public OffHeapRowStore(@NotNull String keySeparator, @NotNull Path scratchFile) throws IOException {
+        this.keySeparator = keySeparator;
+        this.scratchFile = FileChannel.open(
+                scratchFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE
+        );
+        allocateTable(MIN_CAPACITY);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof CompositeKey && find((CompositeKey) key) >= 0;
+    }
+
+    @Override
+    public Map<String, String> get(Object key) {
+        if (!(key instanceof CompositeKey)) {
+            return null;
+        }
+        long slot = find((CompositeKey) key);
+        return slot < 0 ? null : new StoredRow(getAddress(slot) - 1);
+    }
+
+    /**
+     * Store line, previous line with the same key is replaced: it is returned and it is still readable
+     */
+    @Override
+    public Map<String, String> put(CompositeKey key, Map<String, String> value) {
+        Objects.requireNonNull(key, "key");
+        if (!(value instanceof CsvRow)) {
+            throw new IllegalArgumentException("Only CsvRow lines can be stored off heap");
+        }
+        CsvRow row = (CsvRow) value;
+        if (header == null) {
+            header = row.getHeader();
+        } else if (header != row.getHeader()) {
+            throw new IllegalArgumentException("Lines with different title lines cannot be stored together");
+        }
+        long address = write(key, row);
+        long slot = find(key);
+        if (slot >= 0) {
+            long previousAddress = getAddress(slot) - 1;
+            markRemoved(previousAddress);
+            setSlot(slot, address + 1, hash(key));
+            return new StoredRow(previousAddress);
+        }
+        if ((usedSlots + 1) * 2 > capacity) {
+            rehash();
+        }
+        insert(address, hash(key));
+        size++;
+        return null;
+    }
+
+    @Override
+    public Map<String, String> remove(Object key) {
+        if (!(key instanceof CompositeKey)) {
+            return null;
+        }
+        long slot = find((CompositeKey) key);
+        if (slot < 0) {
+            return null;
+        }
+        long address = getAddress(slot) - 1;
+        markRemoved(address);
+        setSlot(slot, REMOVED, 0);
+        size--;
+        return new StoredRow(address);
+    }
+
+    @Override
+    public Set<Entry<CompositeKey, Map<String, String>>> entrySet() {
+        return new AbstractSet<Entry<CompositeKey, Map<String, String>>>() {
+
+            @Override
+            public Iterator<Entry<CompositeKey, Map<String, String>>> iterator() {
+                return new EntriesIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Remove scratch file, memory of direct buffers is released by garbage collector
+     */
+    @Override
+    public void close() throws IOException {
+        scratchFile.close();
+        segments.clear();
+        addressPages = null;
+        hashPages = null;
+        size = 0;
+    }
+
+    private static int hash(CompositeKey key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return slot of key in table or {@code -1} if key is not found
+     */
+    private long find(CompositeKey key) {
+        int hash = hash(key);
+        byte[][] keyParts = null;
+        long mask = capacity - 1;
+        for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long address = getAddress(slot);
+            if (address == EMPTY) {
+                return -1;
+            }
+            if (address != REMOVED && getHash(slot) == hash) {
+                if (keyParts == null) {
+                    keyParts = encode(key);
+                }
+                if (hasKey(address - 1, keyParts)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    private void insert(long address, int hash) {
+        long mask = capacity - 1;
+        long slot = hash & mask;
+        while (getAddress(slot) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, address + 1, hash);
+        usedSlots++;
+    }
+
+    /**
+     * Rebuild table without removed slots, table is enlarged if it is needed for stored lines
+     */
+    private void rehash() {
+        LongBuffer[] oldAddressPages = addressPages;
+        IntBuffer[] oldHashPages = hashPages;
+        long oldCapacity = capacity;
+        long newCapacity = capacity;
+        while ((size + 1) * 4L > newCapacity) {
+            newCapacity *= 2;
+        }
+        allocateTable(newCapacity);
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            long address = oldAddressPages[(int) (slot >>> PAGE_BITS)].get((int) slot & (PAGE_SIZE - 1));
+            if (address != EMPTY && address != REMOVED) {
+                insert(address - 1, oldHashPages[(int) (slot >>> PAGE_BITS)].get((int) slot & (PAGE_SIZE - 1)));
+            }
+        }
+    }
+
+    private void allocateTable(long newCapacity) {
+        capacity = newCapacity;
+        usedSlots = 0;
+        int pageSize = (int) Math.min(PAGE_SIZE, newCapacity);
+        int pagesCount = (int) ((newCapacity + pageSize - 1) / pageSize);
+        addressPages = new LongBuffer[pagesCount];
+        hashPages = new IntBuffer[pagesCount];
+        for (int i = 0; i < pagesCount; i++) {
+            addressPages[i] = ByteBuffer.allocateDirect(pageSize * Long.BYTES).asLongBuffer();
+            hashPages[i] = ByteBuffer.allocateDirect(pageSize * Integer.BYTES).asIntBuffer();
+        }
+    }
+
+    private long getAddress(long slot) {
+        return addressPages[(int) (slot >>> PAGE_BITS)].get((int) slot & (PAGE_SIZE - 1));
+    }
+
+    private int getHash(long slot) {
+        return hashPages[(int) (slot >>> PAGE_BITS)].get((int) slot & (PAGE_SIZE - 1));
+    }
+
+    private void setSlot(long slot, long address, int hash) {
+        addressPages[(int) (slot >>> PAGE_BITS)].put((int) slot & (PAGE_SIZE - 1), address);
+        hashPages[(int) (slot >>> PAGE_BITS)].put((int) slot & (PAGE_SIZE - 1), hash);
+    }
+
+    private static byte[][] encode(CompositeKey key) {
+        byte[][] keyParts = new byte[key.size()][];
+        for (int i = 0; i < keyParts.length; i++) {
+            keyParts[i] = key.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return keyParts;
+    }
+
+    /**
+     * Append line into the last segment (or into new segment if line does not fit into the last one)
+     *
+     * @return address of line
+     */
+    private long write(CompositeKey key, CsvRow row) {
+        byte[][] keyParts = encode(key);
+        int valuesCount = row.getValuesCount();
+        byte[][] fields = new byte[keyParts.length + valuesCount][];
+        System.arraycopy(keyParts, 0, fields, 0, keyParts.length);
+        long length = FIELD_ENDS_OFFSET + (long) fields.length * Integer.BYTES;
+        for (int i = 0; i < valuesCount; i++) {
+            fields[keyParts.length + i] = row.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        for (byte[] field : fields) {
+            length += field.length;
+        }
+        if (length > SEGMENT_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Line with key [%s] is too long to store it off heap: %s bytes", key, length));
+        }
+        int segment = segments.size() - 1;
+        if (segment < 0 || segmentLimits[segment] + length > SEGMENT_SIZE) {
+            segment = addSegment();
+        }
+        MappedByteBuffer buffer = segments.get(segment);
+        int position = segmentLimits[segment];
+        buffer.put(position, LIVE_LINE);
+        buffer.putInt(position + FIELDS_COUNT_OFFSET, keyParts.length);
+        buffer.putInt(position + FIELDS_COUNT_OFFSET + Integer.BYTES, valuesCount);
+        int dataStart = position + FIELD_ENDS_OFFSET + fields.length * Integer.BYTES;
+        int fieldEnd = 0;
+        for (int i = 0; i < fields.length; i++) {
+            buffer.position(dataStart + fieldEnd);
+            buffer.put(fields[i]);
+            fieldEnd += fields[i].length;
+            buffer.putInt(position + FIELD_ENDS_OFFSET + i * Integer.BYTES, fieldEnd);
+        }
+        segmentLimits[segment] = dataStart + fieldEnd;
+        return ((long) segment << SEGMENT_BITS) | position;
+    }
+
+    private int addSegment() {
+        try {
+            long start = (long) segments.size() << SEGMENT_BITS;
+            segments.add(scratchFile.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_SIZE));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Fail to extend scratch file of off heap lines", ex);
+        }
+        if (segments.size() > segmentLimits.length) {
+            int[] newSegmentLimits = new int[segmentLimits.length * 2];
+            System.arraycopy(segmentLimits, 0, newSegmentLimits, 0, segmentLimits.length);
+            segmentLimits = newSegmentLimits;
+        }
+        return segments.size() - 1;
+    }
+
+    private void markRemoved(long address) {
+        segmentOf(address).put(positionOf(address), REMOVED_LINE);
+    }
+
+    private MappedByteBuffer segmentOf(long address) {
+        return segments.get((int) (address >>> SEGMENT_BITS));
+    }
+
+    private static int positionOf(long address) {
+        return (int) address & (SEGMENT_SIZE - 1);
+    }
+
+    private boolean hasKey(long address, byte[][] keyParts) {
+        ByteBuffer buffer = segmentOf(address);
+        int position = positionOf(address);
+        if (buffer.getInt(position + FIELDS_COUNT_OFFSET) != keyParts.length) {
+            return false;
+        }
+        for (int i = 0; i < keyParts.length; i++) {
+            int start = fieldStart(buffer, position, i);
+            int end = fieldEnd(buffer, position, i);
+            if (end - start != keyParts[i].length) {
+                return false;
+            }
+            for (int j = 0; j < keyParts[i].length; j++) {
+                if (buffer.get(start + j) != keyParts[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int fieldsCount(ByteBuffer buffer, int position) {
+        return buffer.getInt(position + FIELDS_COUNT_OFFSET) + buffer.getInt(position + FIELDS_COUNT_OFFSET + 4);
+    }
+
+    private static int fieldStart(ByteBuffer buffer, int position, int field) {
+        int dataStart = position + FIELD_ENDS_OFFSET + fieldsCount(buffer, position) * Integer.BYTES;
+        return field == 0 ? dataStart : dataStart + buffer.getInt(position + FIELD_ENDS_OFFSET + (field - 1) * 4);
+    }
+
+    private static int fieldEnd(ByteBuffer buffer, int position, int field) {
+        int dataStart = position + FIELD_ENDS_OFFSET + fieldsCount(buffer, position) * Integer.BYTES;
+        return dataStart + buffer.getInt(position + FIELD_ENDS_OFFSET + field * Integer.BYTES);
+    }
+
+    private String decodeField(long address, int field) {
+        ByteBuffer buffer = segmentOf(address);
+        int position = positionOf(address);
+        int start = fieldStart(buffer, position, field);
+        byte[] bytes = new byte[fieldEnd(buffer, position, field) - start];
+
+        // view of segment with own position, so lines can be read in several threads
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private CompositeKey decodeKey(long address) {
+        String[] keyParts = new String[segmentOf(address).getInt(positionOf(address) + FIELDS_COUNT_OFFSET)];
+        for (int i = 0; i < keyParts.length; i++) {
+            keyParts[i] = decodeField(address, i);
+        }
+        return new CompositeKey(keyParts, keySeparator);
+    }
+
+    /**
+     * View of stored line, values are decoded on every request
+     */
+    private final class StoredRow extends CsvRow {
+
+        private final long address;
+
+        StoredRow(long address) {
+            super(header);
+            this.address = address;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= getValuesCount()) {
+                return null;
+            }
+            return decodeField(address, segmentOf(address).getInt(positionOf(address) + FIELDS_COUNT_OFFSET) + index);
+        }
+
+        @Override
+        public int getValuesCount() {
+            return segmentOf(address).getInt(positionOf(address) + FIELDS_COUNT_OFFSET + Integer.BYTES);
+        }
+    }
+
+    /**
+     * Iterates over live lines in order of insertion
+     */
+    private class EntriesIterator implements Iterator<Entry<CompositeKey, Map<String, String>>> {
+
+        private int segment;
+        private int position;
+        private long lastAddress = -1;
+
+        EntriesIterator() {
+            skipRemovedLines();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return segment < segments.size();
+        }
+
+        @Override
+        public Entry<CompositeKey, Map<String, String>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastAddress = ((long) segment << SEGMENT_BITS) | position;
+            moveToNextLine();
+            skipRemovedLines();
+            return new SimpleImmutableEntry<>(decodeKey(lastAddress), new StoredRow(lastAddress));
+        }
+
+        @Override
+        public void remove() {
+            if (lastAddress < 0) {
+                throw new IllegalStateException();
+            }
+            OffHeapRowStore.this.remove(decodeKey(lastAddress));
+            lastAddress = -1;
+        }
+
+        private void moveToNextLine() {
+            ByteBuffer buffer = segments.get(segment);
+            position = fieldEnd(buffer, position, fieldsCount(buffer, position) - 1);
+        }
+
+        private void skipRemovedLines() {
+            while (segment < segments.size()) {
+                if (position >= segmentLimits[segment]) {
+                    segment++;
+                    position = 0;
+                } else if (segments.get(segment).get(position) == REMOVED_LINE) {
+                    moveToNextLine();
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,527 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Loaded csv file saved into binary file, so the same file can be compared many times without parsing. Snapshot
+ * contains title line, lines in order of keys and index of lines. Snapshot file is memory-mapped on opening, so it is
+ * opened without reading of lines: lines are found by binary search in index and values are decoded only when they
+ * are requested (like in {@link OffHeapRowStore}). Read only, can be read in several threads.
+ * <p>
+ * Snapshot is used only if it is made for the same source file (size, time of modification and hash of the first
+ * and the last {@link #SAMPLE_SIZE} bytes are the same), the same charset, the same key columns, key separator and
+ * the same key comparator (custom comparator compares keys joined with separator), otherwise {@link #open} returns {@code null} and source file should be loaded again. Comparator cannot
+ * be recognized by its class (lambdas and combined comparators share classes), so custom comparator is identified
+ * by id which is set by user: id should be changed if order of keys is changed.
+ * <p>
+ * File layout: magic number, description of source file, charset, key comparator id, key columns, key separator,
+ * title line, count of lines,
+ * lines (count of key parts, count of values, offsets of ends of all fields and UTF-8 bytes of all fields), offsets
+ * of lines in order of keys and offset of this index at the end of file. Line does not cross border of
+ * {@link #SEGMENT_SIZE} part of file, so every part is mapped separately.
+ */
+public final class RowSnapshot extends AbstractMap<CompositeKey, Map<String, String>> implements Closeable {
+
+    /**
+     * Bytes of "CSVSNAP3"
+     */
+    private static final long MAGIC = 0x435356534E415033L;
+
+    /**
+     * Count of bytes at the start and at the end of source file to calculate hash
+     */
+    public static final int SAMPLE_SIZE = 64 * 1024;
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private static final int FIELD_ENDS_OFFSET = 8;
+
+    private final String keySeparator;
+    private final Comparator<CompositeKey> keyOrder;
+    private MappedByteBuffer[] segments;
+    private CsvHeader header;
+    private int size;
+    private long indexOffset;
+
+    private RowSnapshot(String keySeparator, Comparator<String> keyComparator) {
+        this.keySeparator = keySeparator;
+        this.keyOrder = CompositeKey.comparator(keyComparator);
+    }
+
+    /**
+     * Save loaded file, lines are saved in order of {@code lines} (it should be ordered by {@code keyComparator}).
+     * Snapshot is written into temporary file and moved to {@code snapshotFile} at the end, so incomplete snapshot
+     * is never used.
+     *
+     * @param snapshotFile file to write
+     * @param sourceFile loaded csv file
+     * @param keyElementNames key columns of loaded file
+     * @param keySeparator separator of keys of {@code lines}, see {@link CompositeKey}
+     * @param keyComparator comparator of keys of {@code lines}, {@code null} for natural order
+     * @param keyComparatorId id of {@code keyComparator}, it is required if comparator is set
+     * @param fileCharset charset which was used to read source file
+     * @param lines loaded {@link CsvRow} lines with the same title line
+     */
+    public static void write(
+            @NotNull Path snapshotFile,
+            @NotNull Path sourceFile,
+            @NotNull String[] keyElementNames,
+            @NotNull String keySeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable String keyComparatorId,
+            @NotNull Charset fileCharset,
+            @NotNull Map<CompositeKey, Map<String, String>> lines
+    ) throws IOException {
+        String keyOrder = describeKeyOrder(keyComparator, keyComparatorId);
+        CsvHeader header = null;
+        for (Map<String, String> line : lines.values()) {
+            if (!(line instanceof CsvRow) || header != null && ((CsvRow) line).getHeader() != header) {
+                throw new IllegalArgumentException("Only CsvRow lines with the same title line can be saved");
+            }
+            header = ((CsvRow) line).getHeader();
+        }
+        Path temporaryFile = Files.createTempFile(
+                snapshotFile.toAbsolutePath().getParent(),
+                snapshotFile.getFileName().toString(),
+                ".tmp"
+        );
+        try {
+            try (PositionOutputStream output = new PositionOutputStream(Files.newOutputStream(temporaryFile))) {
+                writeDescription(
+                        output,
+                        sourceFile,
+                        fileCharset,
+                        keyOrder,
+                        keyElementNames,
+                        keySeparator,
+                        header,
+                        lines.size()
+                );
+                long[] index = new long[lines.size()];
+                int lineNumber = 0;
+                for (Map.Entry<CompositeKey, Map<String, String>> line : lines.entrySet()) {
+                    index[lineNumber++] = writeLine(output, line.getKey(), (CsvRow) line.getValue());
+                }
+                output.alignTo(Long.BYTES);
+                long indexOffset = output.getPosition();
+                for (long lineOffset : index) {
+                    output.data.writeLong(lineOffset);
+                }
+                output.data.writeLong(indexOffset);
+            }
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Open snapshot if it is made for the same source file, charset, key columns, key separator and key comparator
+     *
+     * @param keySeparator separator of keys, see {@link CompositeKey}
+     * @param keyComparatorId id of {@code keyComparator}, it is required if comparator is set
+     * @return snapshot or {@code null} if there is no snapshot or it cannot be used
+     */
+    @Nullable
+    public static RowSnapshot open(
+            @NotNull Path snapshotFile,
+            @NotNull Path sourceFile,
+            @NotNull String[] keyElementNames,
+            @NotNull String keySeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable String keyComparatorId,
+            @NotNull Charset fileCharset
+    ) throws IOException {
+        String keyOrder = describeKeyOrder(keyComparator, keyComparatorId);
+        RowSnapshot snapshot = new RowSnapshot(keySeparator, keyComparator);
+        try (FileChannel channel = FileChannel.open(snapshotFile)) {
+            long fileSize = channel.size();
+            if (fileSize < Long.BYTES * 2) {
+                return null;
+            }
+            snapshot.segments = new MappedByteBuffer[(int) ((fileSize + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < snapshot.segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                snapshot.segments[i] = channel.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        start,
+                        Math.min(SEGMENT_SIZE, fileSize - start)
+                );
+            }
+            snapshot.indexOffset = snapshot.getLong(fileSize - Long.BYTES);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+        return snapshot.readDescription(sourceFile, fileCharset, keyOrder, keyElementNames) ? snapshot : null;
+    }
+
+    /**
+     * @return title line of saved lines, {@code null} if there are no lines
+     */
+    public CsvHeader getHeader() {
+        return header;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof CompositeKey && find((CompositeKey) key) >= 0;
+    }
+
+    @Override
+    public Map<String, String> get(Object key) {
+        if (!(key instanceof CompositeKey)) {
+            return null;
+        }
+        long address = find((CompositeKey) key);
+        return address < 0 ? null : new SnapshotRow(address);
+    }
+
+    @Override
+    public Set<Entry<CompositeKey, Map<String, String>>> entrySet() {
+        return new AbstractSet<Entry<CompositeKey, Map<String, String>>>() {
+
+            @Override
+            public Iterator<Entry<CompositeKey, Map<String, String>>> iterator() {
+                return new Iterator<Entry<CompositeKey, Map<String, String>>>() {
+
+                    private int lineNumber;
+
+                    @Override
+                    public boolean hasNext() {
+                        return lineNumber < size;
+                    }
+
+                    @Override
+                    public Entry<CompositeKey, Map<String, String>> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        long address = getLong(indexOffset + (long) lineNumber++ * Long.BYTES);
+                        return new SimpleImmutableEntry<>(decodeKey(address), new SnapshotRow(address));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Release mapped file, memory is unmapped by garbage collector
+     */
+    @Override
+    public void close() {
+        segments = new MappedByteBuffer[0];
+        size = 0;
+    }
+
+    /**
+     * @return hash of the first and the last {@link #SAMPLE_SIZE} bytes of file
+     */
+    static long sampleHash(Path file) throws IOException {
+        CRC32 hash = new CRC32();
+        try (FileChannel channel = FileChannel.open(file)) {
+            long fileSize = channel.size();
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(SAMPLE_SIZE, fileSize));
+            readFully(channel, sample, 0);
+            hash.update(sample.array(), 0, sample.limit());
+            sample.clear();
+            readFully(channel, sample, Math.max(0, fileSize - sample.capacity()));
+            hash.update(sample.array(), 0, sample.limit());
+        }
+        return hash.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private static String describeKeyOrder(Comparator<String> keyComparator, String keyComparatorId) {
+        if (keyComparator == null) {
+            return "natural";
+        }
+        if (keyComparatorId == null) {
+            throw new IllegalArgumentException("Id of key comparator is required to use snapshot with key comparator");
+        }
+        return "custom:" + keyComparatorId;
+    }
+
+    private static void writeDescription(
+            PositionOutputStream output,
+            Path sourceFile,
+            Charset fileCharset,
+            String keyOrder,
+            String[] keyElementNames,
+            String keySeparator,
+            CsvHeader header,
+            int linesCount
+    ) throws IOException {
+        output.data.writeLong(MAGIC);
+        output.data.writeLong(Files.size(sourceFile));
+        output.data.writeLong(Files.getLastModifiedTime(sourceFile).toMillis());
+        output.data.writeLong(sampleHash(sourceFile));
+        writeString(output, fileCharset.name());
+        writeString(output, keyOrder);
+        output.data.writeInt(keyElementNames.length);
+        for (String keyElementName : keyElementNames) {
+            writeString(output, keyElementName);
+        }
+        writeString(output, keySeparator);
+        int columnsCount = header == null ? 0 : header.size();
+        output.data.writeInt(columnsCount);
+        for (int i = 0; i < columnsCount; i++) {
+            writeString(output, header.getName(i));
+        }
+        output.data.writeInt(linesCount);
+    }
+
+    private static void writeString(PositionOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.data.writeInt(bytes.length);
+        output.data.write(bytes);
+    }
+
+    /**
+     * @return offset of written line
+     */
+    private static long writeLine(PositionOutputStream output, CompositeKey key, CsvRow row) throws IOException {
+        int valuesCount = row.getValuesCount();
+        byte[][] fields = new byte[key.size() + valuesCount][];
+        for (int i = 0; i < key.size(); i++) {
+            fields[i] = key.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < valuesCount; i++) {
+            String value = row.get(i);
+            fields[key.size() + i] = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        }
+        long length = FIELD_ENDS_OFFSET + (long) fields.length * Integer.BYTES;
+        for (byte[] field : fields) {
+            length += field.length;
+        }
+        if (length > SEGMENT_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Line with key [%s] is too long to save it: %s bytes", key, length));
+        }
+        long position = output.getPosition();
+        if ((position >>> SEGMENT_BITS) != ((position + length - 1) >>> SEGMENT_BITS)) {
+            output.alignTo(SEGMENT_SIZE);
+            position = output.getPosition();
+        }
+        output.data.writeInt(key.size());
+        output.data.writeInt(valuesCount);
+        int fieldEnd = 0;
+        for (byte[] field : fields) {
+            fieldEnd += field.length;
+            output.data.writeInt(fieldEnd);
+        }
+        for (byte[] field : fields) {
+            output.data.write(field);
+        }
+        return position;
+    }
+
+    /**
+     * @return {@code true} if snapshot is made for the same source file, charset, key columns, key separator and
+     * key comparator
+     */
+    private boolean readDescription(Path sourceFile, Charset fileCharset, String keyOrder, String[] keyElementNames)
+            throws IOException {
+        ByteBuffer description = segments[0].duplicate();
+        if (description.getLong() != MAGIC
+                || description.getLong() != Files.size(sourceFile)
+                || description.getLong() != Files.getLastModifiedTime(sourceFile).toMillis()
+                || description.getLong() != sampleHash(sourceFile)
+                || !readString(description).equals(fileCharset.name())
+                || !readString(description).equals(keyOrder)) {
+            return false;
+        }
+        String[] savedKeyElementNames = new String[description.getInt()];
+        for (int i = 0; i < savedKeyElementNames.length; i++) {
+            savedKeyElementNames[i] = readString(description);
+        }
+        if (!Arrays.equals(savedKeyElementNames, keyElementNames) || !readString(description).equals(keySeparator)) {
+            return false;
+        }
+        String[] columns = new String[description.getInt()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = readString(description);
+        }
+        header = columns.length == 0 ? null : new CsvHeader(columns);
+        size = description.getInt();
+        return true;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return address of line with the key or {@code -1} if key is not found
+     */
+    private long find(CompositeKey key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long address = getLong(indexOffset + (long) middle * Long.BYTES);
+            int comparison = keyOrder.compare(decodeKey(address), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return address;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer segmentOf(long address) {
+        return segments[(int) (address >>> SEGMENT_BITS)];
+    }
+
+    private static int positionOf(long address) {
+        return (int) (address & (SEGMENT_SIZE - 1));
+    }
+
+    private long getLong(long address) {
+        return segmentOf(address).getLong(positionOf(address));
+    }
+
+    private String decodeField(long address, int field) {
+        ByteBuffer buffer = segmentOf(address);
+        int position = positionOf(address);
+        int fieldsCount = buffer.getInt(position) + buffer.getInt(position + Integer.BYTES);
+        int dataStart = position + FIELD_ENDS_OFFSET + fieldsCount * Integer.BYTES;
+        int start = field == 0
+                ? dataStart
+                : dataStart + buffer.getInt(position + FIELD_ENDS_OFFSET + (field - 1) * Integer.BYTES);
+        int end = dataStart + buffer.getInt(position + FIELD_ENDS_OFFSET + field * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+
+        // view of segment with own position, so lines can be read in several threads
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private CompositeKey decodeKey(long address) {
+        String[] keyParts = new String[segmentOf(address).getInt(positionOf(address))];
+        for (int i = 0; i < keyParts.length; i++) {
+            keyParts[i] = decodeField(address, i);
+        }
+        return new CompositeKey(keyParts, keySeparator);
+    }
+
+    /**
+     * View of saved line, values are decoded on every request
+     */
+    private final class SnapshotRow extends CsvRow {
+
+        private final long address;
+
+        SnapshotRow(long address) {
+            super(header);
+            this.address = address;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= getValuesCount()) {
+                return null;
+            }
+            return decodeField(address, segmentOf(address).getInt(positionOf(address)) + index);
+        }
+
+        @Override
+        public int getValuesCount() {
+            return segmentOf(address).getInt(positionOf(address) + Integer.BYTES);
+        }
+    }
+
+    /**
+     * Stream which counts written bytes (position can be more than 2 GB)
+     */
+    private static final class PositionOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final DataOutputStream data = new DataOutputStream(this);
+        private long position;
+
+        PositionOutputStream(OutputStream target) {
+            this.target = new BufferedOutputStream(target, 64 * 1024);
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        /**
+         * Write zero bytes till position which is multiple of {@code alignment}
+         */
+        void alignTo(long alignment) throws IOException {
+            while (position % alignment != 0) {
+                write(0);
+            }
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            target.write(value);
+            position++;
+        }
+
+        @Override
+        public void write(@NotNull byte[] bytes, int offset, int length) throws IOException {
+            target.write(bytes, offset, length);
+            position += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+}
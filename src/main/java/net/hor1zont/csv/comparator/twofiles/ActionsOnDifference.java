@@ -63,6 +63,17 @@ public class ActionsOnDifference {
         throw new IllegalStateException(ex);
     }
 
+    /**
+     * Called once if column of comparison rule is not found in title line of compared file (before comparison of
+     * lines). By default it is handled like {@link #columnIsNotFound}, so exception is thrown before comparison. If
+     * exception is not thrown then error is reported for every compared line.
+     */
+    public void columnIsNotFoundInHeader(
+            ColumnNotFoundException ex
+    ) {
+        columnIsNotFound(new DetectedError("column is not found"), ex);
+    }
+
     public boolean stopOnDuplicationFound() {
         return false;
 
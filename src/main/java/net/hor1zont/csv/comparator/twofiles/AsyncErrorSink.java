@@ -0,0 +1,126 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Passes errors to the next receiver (e.g. report file) in separate thread, so report is written at the same time
+ * with comparison. Errors are passed by batches through queue with limited capacity: comparison waits if report is
+ * written slower than errors are found. Errors should be added in one thread, the next receiver is called in order
+ * of errors. Failure of the next receiver is thrown on the next {@link #add} or in {@link #close()}.
+ */
+public class AsyncErrorSink implements DetectedErrorSink, Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /**
+     * Marker of the end of errors in queue
+     */
+    private static final List<DetectedError> END_OF_ERRORS = new ArrayList<>();
+
+    private final DetectedErrorSink next;
+    private final int batchSize;
+    private final BlockingQueue<List<DetectedError>> batches;
+    private final Thread writer;
+    private volatile Throwable failure;
+
+    private List<DetectedError> batch;
+    private boolean closed;
+
+    public AsyncErrorSink(DetectedErrorSink next) {
+        this(next, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param next receiver of errors which is called in separate thread
+     * @param batchSize count of errors which are passed to separate thread at once
+     * @param queueCapacity max count of batches which wait for the next receiver
+     */
+    public AsyncErrorSink(DetectedErrorSink next, int batchSize, int queueCapacity) {
+        this.next = next;
+        this.batchSize = batchSize;
+        this.batches = new ArrayBlockingQueue<>(queueCapacity);
+        this.batch = new ArrayList<>(batchSize);
+        this.writer = new Thread(this::passErrors, "csv-comparator-report-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void add(DetectedError detectedError) {
+        checkFailure();
+        batch.add(detectedError);
+        if (batch.size() >= batchSize) {
+            putBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Pass the rest of errors to the next receiver and wait until all errors are passed
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!batch.isEmpty()) {
+            putBatch(batch);
+            batch = null;
+        }
+        putBatch(END_OF_ERRORS);
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Writing of report is interrupted", ex);
+        }
+        checkFailure();
+    }
+
+    private void putBatch(List<DetectedError> errors) {
+        try {
+            batches.put(errors);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Writing of report is interrupted", ex);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    private void passErrors() {
+        try {
+            List<DetectedError> errors;
+            while ((errors = batches.take()) != END_OF_ERRORS) {
+                if (failure != null) {
+
+                    // errors are only taken from queue to not block comparison after failure
+                    continue;
+                }
+                try {
+                    errors.forEach(next::add);
+                } catch (Throwable ex) {
+                    failure = ex;
+                }
+            }
+        } catch (InterruptedException ex) {
+            failure = ex;
+        }
+    }
+}
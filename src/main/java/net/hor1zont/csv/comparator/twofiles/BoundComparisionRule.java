@@ -0,0 +1,199 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+
+import java.util.Map;
+
+/**
+ * Comparison rule with column names resolved into column indexes once for title lines of compared files. Lines of
+ * these files are compared without search of every column by name. Lines of other files (or lines which are not
+ * {@link CsvRow}) and custom extractors which override {@link ValueExtractor#extractValue(Map, String...)} are
+ * handled by the rule like before binding.
+ */
+public final class BoundComparisionRule {
+
+    private final ValuesComparisionRule rule;
+
+    private final CsvHeader headerA;
+    private final CsvHeader headerB;
+
+    /**
+     * Indexes of {@link ValuesComparisionRule#getKeysA()} and {@link ValuesComparisionRule#getKeysB()} columns,
+     * {@code null} if columns are not resolved
+     */
+    private final int[] columnsA;
+    private final int[] columnsB;
+
+    /**
+     * Joined values can be compared without creation of joined strings: default extractors and validator are used
+     */
+    private final boolean joinedComparison;
+
+    /**
+     * Receiver of time of extraction and validation, {@code null} if rule is not profiled
+     */
+    private final RuleProfiler.RuleProfile profile;
+
+    BoundComparisionRule(
+            ValuesComparisionRule rule,
+            CsvHeader headerA,
+            CsvHeader headerB,
+            int[] columnsA,
+            int[] columnsB
+    ) {
+        this(rule, headerA, headerB, columnsA, columnsB, null);
+    }
+
+    private BoundComparisionRule(
+            ValuesComparisionRule rule,
+            CsvHeader headerA,
+            CsvHeader headerB,
+            int[] columnsA,
+            int[] columnsB,
+            RuleProfiler.RuleProfile profile
+    ) {
+        this.rule = rule;
+        this.headerA = headerA;
+        this.headerB = headerB;
+        this.columnsA = columnsA;
+        this.columnsB = columnsB;
+        this.joinedComparison = columnsA != null
+                && columnsB != null
+                && hasDefaultJoin(rule.getValueExtractorA())
+                && hasDefaultJoin(rule.getValueExtractorB())
+                && isDeclaredIn(rule.getValidator(), TwoValuesValidator.class, "equalityFunction",
+                String.class, String.class);
+        this.profile = profile;
+    }
+
+    public ValuesComparisionRule getRule() {
+        return rule;
+    }
+
+    /**
+     * @return the same rule which adds time of every evaluation into {@code ruleProfiler}
+     */
+    BoundComparisionRule profiled(RuleProfiler ruleProfiler) {
+        return new BoundComparisionRule(rule, headerA, headerB, columnsA, columnsB, ruleProfiler.getProfile(rule));
+    }
+
+    /**
+     * The same as {@link ValuesComparisionRule#evaluate(Map, Map)}, but values are extracted by resolved column
+     * indexes where it is possible. If the rule uses default extractors and validator then joined values are compared
+     * without creation of joined strings: they are created only if values are not equal, for equal values
+     * {@link ComparisonResult#EQUAL_VALUES} without values is returned.
+     */
+    public ComparisonResult evaluate(
+            Map<String, String> rowA,
+            Map<String, String> rowB
+    ) throws ColumnNotFoundException {
+        long start = profile == null ? 0 : System.nanoTime();
+        if (joinedComparison && isRowOf(rowA, headerA) && isRowOf(rowB, headerB)) {
+            int joinedComparisonResult = JoinedValues.compare(
+                    (CsvRow) rowA,
+                    columnsA,
+                    rule.getValueExtractorA().getSeparator(),
+                    (CsvRow) rowB,
+                    columnsB,
+                    rule.getValueExtractorB().getSeparator()
+            );
+            if (joinedComparisonResult == JoinedValues.EQUAL) {
+                profileValidation(start);
+                return ComparisonResult.EQUAL_VALUES;
+            }
+            if (joinedComparisonResult == JoinedValues.NOT_EQUAL) {
+                long validated = profileValidation(start);
+                ComparisonResult comparisonResult = new ComparisonResult(
+                        rule.getValueExtractorA().extractValue((CsvRow) rowA, columnsA),
+                        rule.getValueExtractorB().extractValue((CsvRow) rowB, columnsB),
+                        false
+                );
+                profileExtraction(validated);
+                return comparisonResult;
+            }
+        }
+        String valueA = columnsA != null && isRowOf(rowA, headerA)
+                ? rule.getValueExtractorA().extractValue((CsvRow) rowA, columnsA)
+                : rule.extractValueA(rowA);
+        String valueB = columnsB != null && isRowOf(rowB, headerB)
+                ? rule.getValueExtractorB().extractValue((CsvRow) rowB, columnsB)
+                : rule.extractValueB(rowB);
+        long extracted = profileExtraction(start);
+        boolean equal = rule.compareValues(valueA, valueB);
+        profileValidation(extracted);
+        return new ComparisonResult(valueA, valueB, equal);
+    }
+
+    /**
+     * @return current time if rule is profiled
+     */
+    private long profileExtraction(long start) {
+        if (profile == null) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        profile.addExtraction(end - start);
+        return end;
+    }
+
+    /**
+     * @return current time if rule is profiled
+     */
+    private long profileValidation(long start) {
+        if (profile == null) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        profile.addValidation(end - start);
+        return end;
+    }
+
+    private static boolean isRowOf(Map<String, String> row, CsvHeader header) {
+        return row instanceof CsvRow && ((CsvRow) row).getHeader() == header;
+    }
+
+    /**
+     * @return indexes of {@code columns} in title line or {@code null} if columns should not be resolved
+     * (title line is unknown or extractor has custom logic to get values by column names)
+     */
+    static int[] resolveColumns(
+            ValueExtractor valueExtractor,
+            String[] columns,
+            CsvHeader header
+    ) throws ColumnNotFoundException {
+        if (header == null || !hasDefaultExtraction(valueExtractor)) {
+            return null;
+        }
+        int[] columnIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnIndexes[i] = header.indexOf(columns[i]);
+            if (columnIndexes[i] < 0) {
+                throw new ColumnNotFoundException(String.format("Column [%s] is not found in title line %s",
+                        columns[i],
+                        header
+                ));
+            }
+        }
+        return columnIndexes;
+    }
+
+    private static boolean hasDefaultExtraction(ValueExtractor valueExtractor) {
+        return isDeclaredIn(valueExtractor, ValueExtractor.class, "extractValue", Map.class, String[].class);
+    }
+
+    private static boolean hasDefaultJoin(ValueExtractor valueExtractor) {
+        return isDeclaredIn(valueExtractor, ValueExtractor.class, "extractValue", CsvRow.class, int[].class);
+    }
+
+    /**
+     * @return {@code true} if method of {@code object} is not overridden: it is declared in {@code baseClass}
+     */
+    private static boolean isDeclaredIn(Object object, Class<?> baseClass, String name, Class<?>... parameterTypes) {
+        try {
+            return object.getClass().getMethod(name, parameterTypes).getDeclaringClass() == baseClass;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.Charset;
+
+/**
+ * Receiver of measurements of one comparison run: time and size of every phase of run and count of evaluations of
+ * every comparison rule. Phases can be added from several threads (files can be loaded at once).
+ */
+public interface ComparisonMetrics {
+
+    /**
+     * Phases of comparison run
+     */
+    enum Phase {
+        PARSE_FILE_A,
+        PARSE_FILE_B,
+        COMPARE,
+
+        /**
+         * Report is written in separate thread at the same time with comparison, so time of this phase is time spent
+         * in report writer
+         */
+        WRITE_REPORT
+    }
+
+    /**
+     * @param wallTimeNanos duration of phase
+     * @param rows count of processed lines
+     * @param bytes count of processed bytes
+     */
+    void addPhase(Phase phase, long wallTimeNanos, long rows, long bytes);
+
+    /**
+     * @param evaluations count of pairs of lines which are compared with the rule
+     */
+    void addRuleEvaluations(ValuesComparisionRule rule, long evaluations);
+
+    /**
+     * Time spent in the rule if rules are profiled, see {@link RuleProfiler}
+     *
+     * @param extractionNanos time of extraction of values from both lines
+     * @param validationNanos time of comparison of extracted values
+     */
+    void addRuleProfile(ValuesComparisionRule rule, long extractionNanos, long validationNanos);
+
+    /**
+     * Log summary of run
+     */
+    void log();
+
+    /**
+     * Write all measurements into json file
+     *
+     * @param fileName full path to file
+     * @param fileCharset file charset (default is {@link net.hor1zont.csv.comparator.utils.CsvUtil#DEFAULT_FILE_CHARSET})
+     */
+    void writeToJsonFile(String fileName, @Nullable Charset fileCharset);
+}
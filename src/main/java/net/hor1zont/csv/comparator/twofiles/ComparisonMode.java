@@ -0,0 +1,44 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+/**
+ * Way how 2 files are read and compared. Can be set in {@link TwoFilesComparisonActions#getComparisonMode()}
+ */
+public enum ComparisonMode {
+
+    /**
+     * Both files are loaded into memory before comparison, see {@link FilesComparator}
+     */
+    IN_MEMORY,
+
+    /**
+     * Both files are loaded into memory like in {@link #IN_MEMORY} mode, but lines are stored in hash index, so
+     * lines are found by key without keys comparison. Differences are reported in order of lines in files (not in
+     * order of keys). Key comparator cannot be used with hash index: {@link #IN_MEMORY} mode is used if key
+     * comparator is set
+     */
+    HASH_INDEX,
+
+    /**
+     * Both files are already sorted by key columns (in order of key comparator) and are read together line by line
+     * in one pass, see {@link SortedFilesComparator}
+     */
+    SORTED_STREAMING,
+
+    /**
+     * Files are not sorted: both files are sorted into temporary files with limited memory and then compared like in
+     * {@link #SORTED_STREAMING} mode, see {@link ExternalSortFilesComparator}
+     */
+    EXTERNAL_SORT,
+
+    /**
+     * Both files are split into partitions by hash of key and every pair of partitions is loaded into memory and
+     * compared separately, see {@link PartitionedFilesComparator}
+     */
+    HASH_PARTITIONED,
+
+    /**
+     * The smaller file is loaded into memory and the larger file is read line by line: every line of the larger file
+     * is compared as soon as it is read and is not kept in memory, see {@link ProbeFilesComparator}
+     */
+    BUILD_PROBE
+}
@@ -0,0 +1,44 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+/**
+ * Result of comparison of 2 lines with {@link ValuesComparisionRule#evaluate}: extracted values and result of their
+ * validation
+ */
+public final class ComparisonResult {
+
+    /**
+     * Result for equal values which are compared without extraction, see {@link BoundComparisionRule#evaluate}
+     */
+    public static final ComparisonResult EQUAL_VALUES = new ComparisonResult(null, null, true);
+
+    private final String valueA;
+    private final String valueB;
+    private final boolean equal;
+
+    public ComparisonResult(String valueA, String valueB, boolean equal) {
+        this.valueA = valueA;
+        this.valueB = valueB;
+        this.equal = equal;
+    }
+
+    /**
+     * @return value extracted from line of file A, {@code null} for {@link #EQUAL_VALUES}
+     */
+    public String getValueA() {
+        return valueA;
+    }
+
+    /**
+     * @return value extracted from line of file B, {@code null} for {@link #EQUAL_VALUES}
+     */
+    public String getValueB() {
+        return valueB;
+    }
+
+    /**
+     * @return {@code true} if values are equal by validator of the rule
+     */
+    public boolean isEqual() {
+        return equal;
+    }
+}
@@ -41,10 +41,20 @@ public class DetectedError {
     private String primaryKeyA;
     private String primaryKeyB;
 
+    /**
+     * Rule which found difference, {@code null} for errors which are not related to comparison rules. It is not
+     * displayed in report
+     */
+    private ValuesComparisionRule rule;
+
     public DetectedError(String reason) {
         this.reason = reason;
     }
 
+    public String getReason() {
+        return reason;
+    }
+
     public DetectedError setFileA(String fileA) {
         this.fileA = fileA;
         return this;
@@ -90,6 +100,31 @@ public class DetectedError {
         return this;
     }
 
+    public String[] getTitleColumnA() {
+        return keysColumnA;
+    }
+
+    public String[] getTitleColumnB() {
+        return keysColumnB;
+    }
+
+    public String getValueA() {
+        return valueA;
+    }
+
+    public String getValueB() {
+        return valueB;
+    }
+
+    public ValuesComparisionRule getRule() {
+        return rule;
+    }
+
+    public DetectedError setRule(ValuesComparisionRule rule) {
+        this.rule = rule;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "reason='" + reason + '\'' +
@@ -111,17 +146,26 @@ public class DetectedError {
     }
 
     public String toCSVString() {
-        return reason +
-                getCVSValueIfNotNull(primaryKeyA) +
-                getCVSValueIfNotNull(valueA) +
-                getCVSValueIfNotNull(Arrays.toString(keysColumnA)) +
-                getCVSValueIfNotNull(fileA) +
-                getCVSValueIfNotNull(primaryKeyB) +
-                getCVSValueIfNotNull(valueB) +
-                getCVSValueIfNotNull(Arrays.toString(keysColumnB)) +
-                getCVSValueIfNotNull(fileB) +
-                getCVSValueIfNotNull(testFolder)
-                ;
+        StringBuilder csvString = new StringBuilder();
+        appendCSVString(csvString);
+        return csvString.toString();
+    }
+
+    /**
+     * The same as {@link #toCSVString()}, but line is appended to {@code csvString}, so one buffer can be used for
+     * many lines
+     */
+    public void appendCSVString(StringBuilder csvString) {
+        csvString.append(reason);
+        appendCSVValue(csvString, primaryKeyA);
+        appendCSVValue(csvString, valueA);
+        appendCSVValues(csvString, keysColumnA);
+        appendCSVValue(csvString, fileA);
+        appendCSVValue(csvString, primaryKeyB);
+        appendCSVValue(csvString, valueB);
+        appendCSVValues(csvString, keysColumnB);
+        appendCSVValue(csvString, fileB);
+        appendCSVValue(csvString, testFolder);
     }
 
     public static String getCSVTitle() {
@@ -138,8 +182,30 @@ public class DetectedError {
                 ;
     }
 
-    private String getCVSValueIfNotNull(String value) {
-        return value != null ? String.format(",%s", value) : ",";
+    private static void appendCSVValue(StringBuilder csvString, String value) {
+        csvString.append(',');
+        if (value != null) {
+            csvString.append(value);
+        }
+    }
+
+    /**
+     * Append values in format of {@link Arrays#toString(Object[])}
+     */
+    private static void appendCSVValues(StringBuilder csvString, String[] values) {
+        csvString.append(',');
+        if (values == null) {
+            csvString.append("null");
+            return;
+        }
+        csvString.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csvString.append(", ");
+            }
+            csvString.append(values[i]);
+        }
+        csvString.append(']');
     }
 }
 
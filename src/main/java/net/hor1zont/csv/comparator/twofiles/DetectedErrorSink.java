@@ -0,0 +1,18 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+/**
+ * Receiver of detected errors: errors are passed one by one as soon as they are found, so they can be written into
+ * report without keeping all of them in memory. List of errors can be used as {@code detectedErrors::add}
+ */
+@FunctionalInterface
+public interface DetectedErrorSink {
+
+    void add(DetectedError detectedError);
+
+    /**
+     * @return {@code true} if no more errors are needed, so comparison can be stopped
+     */
+    default boolean isComplete() {
+        return false;
+    }
+}
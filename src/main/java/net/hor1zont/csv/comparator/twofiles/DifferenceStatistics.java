@@ -0,0 +1,253 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Counts detected errors by reason, by comparison rule and by columns, and finds the most frequent pairs of not equal
+ * values. Errors are passed to the next receiver (e.g. report), only counters are kept in memory.
+ * <p>
+ * Pairs of values are counted with limited count of counters (Misra-Gries algorithm): counts of the most frequent
+ * pairs can be less than real ones, but pairs which are found more often than in {@code 1 / countersCount} part of all
+ * differences are always kept.
+ */
+public class DifferenceStatistics implements DetectedErrorSink {
+
+    private static final Logger LOG = LogManager.getLogger(DifferenceStatistics.class);
+
+    public static final int DEFAULT_TOP_MISMATCHES_COUNT = 10;
+
+    /**
+     * Count of counters of pairs of values for every pair which is displayed
+     */
+    private static final int COUNTERS_PER_TOP_MISMATCH = 10;
+
+    private final DetectedErrorSink next;
+    private final int topMismatchesCount;
+    private final int mismatchCountersCount;
+
+    /**
+     * Can be read from another thread to report progress
+     */
+    private volatile long errorsCount;
+    private final Map<String, Long> errorsCountByReason = new LinkedHashMap<>();
+    private final Map<ValuesComparisionRule, Long> errorsCountByRule = new LinkedHashMap<>();
+    private final Map<String, Long> errorsCountByColumns = new LinkedHashMap<>();
+    private final Map<Mismatch, Long> mismatchCounters = new HashMap<>();
+
+    /**
+     * @param next receiver of all errors
+     * @param topMismatchesCount count of the most frequent pairs of not equal values to display
+     */
+    public DifferenceStatistics(DetectedErrorSink next, int topMismatchesCount) {
+        this.next = next;
+        this.topMismatchesCount = topMismatchesCount;
+        this.mismatchCountersCount = Math.max(1, topMismatchesCount * COUNTERS_PER_TOP_MISMATCH);
+    }
+
+    @Override
+    public void add(DetectedError detectedError) {
+        errorsCount++;
+        errorsCountByReason.merge(detectedError.getReason(), 1L, Long::sum);
+        String columns = null;
+        if (detectedError.getTitleColumnA() != null || detectedError.getTitleColumnB() != null) {
+            columns = Arrays.toString(detectedError.getTitleColumnA())
+                    + " - " + Arrays.toString(detectedError.getTitleColumnB());
+            errorsCountByColumns.merge(columns, 1L, Long::sum);
+        }
+        if (detectedError.getRule() != null) {
+            errorsCountByRule.merge(detectedError.getRule(), 1L, Long::sum);
+            if (detectedError.getValueA() != null || detectedError.getValueB() != null) {
+                countMismatch(new Mismatch(columns, detectedError.getValueA(), detectedError.getValueB()));
+            }
+        }
+        next.add(detectedError);
+    }
+
+    @Override
+    public boolean isComplete() {
+        return next.isComplete();
+    }
+
+    public long getErrorsCount() {
+        return errorsCount;
+    }
+
+    /**
+     * @return count of errors for every reason in order of first occurrence
+     */
+    public Map<String, Long> getErrorsCountByReason() {
+        return Collections.unmodifiableMap(errorsCountByReason);
+    }
+
+    /**
+     * @return count of errors for every comparison rule in order of first occurrence
+     */
+    public Map<ValuesComparisionRule, Long> getErrorsCountByRule() {
+        return Collections.unmodifiableMap(errorsCountByRule);
+    }
+
+    /**
+     * @return count of errors for every pair of columns of file A and file B in order of first occurrence
+     */
+    public Map<String, Long> getErrorsCountByColumns() {
+        return Collections.unmodifiableMap(errorsCountByColumns);
+    }
+
+    /**
+     * @return the most frequent pairs of not equal values with their counts (counts can be less than real ones)
+     */
+    public List<Map.Entry<Mismatch, Long>> getTopMismatches() {
+        List<Map.Entry<Mismatch, Long>> mismatches = new ArrayList<>(mismatchCounters.entrySet());
+        mismatches.sort((mismatch1, mismatch2) -> Long.compare(mismatch2.getValue(), mismatch1.getValue()));
+        return mismatches.subList(0, Math.min(topMismatchesCount, mismatches.size()));
+    }
+
+    /**
+     * Log all counters
+     */
+    public void log() {
+        LOG.warn(String.format("Statistics of %s differences:", errorsCount));
+        errorsCountByReason.forEach((reason, count) -> LOG.warn(String.format("reason %s: %s", reason, count)));
+        errorsCountByRule.forEach((rule, count) -> LOG.warn(String.format("rule %s: %s", describe(rule), count)));
+        errorsCountByColumns.forEach((columns, count) -> LOG.warn(String.format("columns %s: %s", columns, count)));
+        for (Map.Entry<Mismatch, Long> mismatch : getTopMismatches()) {
+            LOG.warn(String.format("values %s: %s", mismatch.getKey(), mismatch.getValue()));
+        }
+    }
+
+    /**
+     * Write all counters into csv file: every line contains section (reason, rule, columns, mismatch), name of
+     * counter, values for mismatch and count
+     *
+     * @param fileName full path to file
+     * @param fileCharset file charset (default is {@link CsvUtil#DEFAULT_FILE_CHARSET})
+     */
+    public void writeToCsvFile(String fileName, @Nullable Charset fileCharset) {
+        try (
+                BufferedWriter writer = Files.newBufferedWriter(
+                        Paths.get(fileName),
+                        fileCharset == null ? CsvUtil.DEFAULT_FILE_CHARSET : fileCharset
+                );
+                CSVPrinter printer = CSVFormat.EXCEL.withHeader("section", "name", "valueA", "valueB", "count")
+                        .print(writer)
+        ) {
+            for (Map.Entry<String, Long> reason : errorsCountByReason.entrySet()) {
+                printer.printRecord("reason", reason.getKey(), null, null, reason.getValue());
+            }
+            for (Map.Entry<ValuesComparisionRule, Long> rule : errorsCountByRule.entrySet()) {
+                printer.printRecord("rule", describe(rule.getKey()), null, null, rule.getValue());
+            }
+            for (Map.Entry<String, Long> columns : errorsCountByColumns.entrySet()) {
+                printer.printRecord("columns", columns.getKey(), null, null, columns.getValue());
+            }
+            for (Map.Entry<Mismatch, Long> mismatch : getTopMismatches()) {
+                printer.printRecord(
+                        "mismatch",
+                        mismatch.getKey().getColumns(),
+                        mismatch.getKey().getValueA(),
+                        mismatch.getKey().getValueB(),
+                        mismatch.getValue()
+                );
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Fail to write statistics into file [%s]", fileName), ex);
+        }
+    }
+
+    private static String describe(ValuesComparisionRule rule) {
+        return Arrays.toString(rule.getKeysA()) + " - " + Arrays.toString(rule.getKeysB());
+    }
+
+    private void countMismatch(Mismatch mismatch) {
+        Long count = mismatchCounters.get(mismatch);
+        if (count != null) {
+            mismatchCounters.put(mismatch, count + 1);
+        } else if (mismatchCounters.size() < mismatchCountersCount) {
+            mismatchCounters.put(mismatch, 1L);
+        } else {
+
+            // no free counter: decrease all counters instead of counting of new pair
+            Iterator<Map.Entry<Mismatch, Long>> counters = mismatchCounters.entrySet().iterator();
+            while (counters.hasNext()) {
+                Map.Entry<Mismatch, Long> counter = counters.next();
+                if (counter.getValue() == 1) {
+                    counters.remove();
+                } else {
+                    counter.setValue(counter.getValue() - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pair of not equal values in the same columns
+     */
+    public static final class Mismatch {
+
+        private final String columns;
+        private final String valueA;
+        private final String valueB;
+
+        Mismatch(String columns, String valueA, String valueB) {
+            this.columns = columns;
+            this.valueA = valueA;
+            this.valueB = valueB;
+        }
+
+        public String getColumns() {
+            return columns;
+        }
+
+        public String getValueA() {
+            return valueA;
+        }
+
+        public String getValueB() {
+            return valueB;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Mismatch)) {
+                return false;
+            }
+            Mismatch otherMismatch = (Mismatch) other;
+            return Objects.equals(columns, otherMismatch.columns)
+                    && Objects.equals(valueA, otherMismatch.valueA)
+                    && Objects.equals(valueB, otherMismatch.valueB);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(columns, valueA, valueB);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: '%s' - '%s'", columns, valueA, valueB);
+        }
+    }
+}
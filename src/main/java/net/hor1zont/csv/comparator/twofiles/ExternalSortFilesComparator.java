@@ -0,0 +1,84 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.ExternalCsvSorter;
+import org.apache.commons.csv.CSVParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Class with logic to compare 2 not sorted csv files of any size: both files are sorted by key columns into
+ * temporary files with {@link ExternalCsvSorter} and then compared like in {@link SortedFilesComparator}
+ */
+public class ExternalSortFilesComparator extends SortedFilesComparator {
+
+    private final ExternalCsvSorter externalCsvSorter;
+
+    private Path sortedFileA;
+    private Path sortedFileB;
+
+    public ExternalSortFilesComparator(
+            ActionsOnDifference actionsOnDifference,
+            CsvUtil csvUtil,
+            ExternalCsvSorter externalCsvSorter
+    ) {
+        super(actionsOnDifference, csvUtil);
+        this.externalCsvSorter = externalCsvSorter;
+    }
+
+    /**
+     * Sort both files and compare them, temporary sorted files are removed after comparison
+     */
+    @Override
+    public void compare(
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        try {
+            sortedFileA = externalCsvSorter.sort(
+                    getFileNameA(),
+                    getKeysFileA(),
+                    getKeySeparatorFileA(),
+                    getKeyComparator(),
+                    getCharsetFileA()
+            );
+            sortedFileB = externalCsvSorter.sort(
+                    getFileNameB(),
+                    getKeysFileB(),
+                    getKeySeparatorFileB(),
+                    getKeyComparator(),
+                    getCharsetFileB()
+            );
+            super.compare(valuesComparisionRules, detectedErrors);
+        } finally {
+            deleteSortedFile(sortedFileA);
+            deleteSortedFile(sortedFileB);
+            sortedFileA = null;
+            sortedFileB = null;
+        }
+    }
+
+    @Override
+    protected CSVParser openSortedFileA() throws IOException {
+        return CsvUtil.openTemporaryFile(sortedFileA);
+    }
+
+    @Override
+    protected CSVParser openSortedFileB() throws IOException {
+        return CsvUtil.openTemporaryFile(sortedFileB);
+    }
+
+    private static void deleteSortedFile(Path sortedFile) {
+        if (sortedFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(sortedFile);
+        } catch (IOException ignored) {
+            // temporary file is not deleted, comparison result is not affected
+        }
+    }
+}
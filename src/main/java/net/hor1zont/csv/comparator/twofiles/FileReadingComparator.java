@@ -0,0 +1,114 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+
+import java.nio.charset.Charset;
+import java.util.Comparator;
+
+/**
+ * Base class for comparators which read compared files by themselves (instead of usage of files loaded into memory
+ * before comparison like in {@link FilesComparator})
+ */
+public abstract class FileReadingComparator extends FilesComparator {
+
+    private final CsvUtil csvUtil;
+
+    private String[] keysFileA;
+    private String[] keysFileB;
+    private String fileNameA;
+    private String fileNameB;
+    private String keySeparatorFileA;
+    private String keySeparatorFileB;
+    private Comparator<String> keyComparator;
+    private Charset charsetFileA;
+    private Charset charsetFileB;
+
+    protected FileReadingComparator(ActionsOnDifference actionsOnDifference, CsvUtil csvUtil) {
+        super(actionsOnDifference);
+        this.csvUtil = csvUtil;
+    }
+
+    /**
+     * Should be called before compare method
+     */
+    void init(
+            String pathFileA,
+            String pathFileB,
+            String[] keysFileA,
+            String[] keysFileB,
+            String testFolder,
+            String fileNameA,
+            String fileNameB,
+            String keySeparatorFileA,
+            String keySeparatorFileB,
+            Comparator<String> keyComparator,
+            Charset charsetFileA,
+            Charset charsetFileB
+    ) {
+        this.keysFileA = keysFileA;
+        this.keysFileB = keysFileB;
+        this.fileNameA = fileNameA;
+        this.fileNameB = fileNameB;
+        this.keySeparatorFileA = keySeparatorFileA;
+        this.keySeparatorFileB = keySeparatorFileB;
+        this.keyComparator = keyComparator;
+        this.charsetFileA = charsetFileA;
+        this.charsetFileB = charsetFileB;
+        initActionsOnDifference(
+                pathFileA,
+                pathFileB,
+                keysFileA,
+                keysFileB,
+                testFolder
+        );
+    }
+
+    protected CsvUtil getCsvUtil() {
+        return csvUtil;
+    }
+
+    protected String[] getKeysFileA() {
+        return keysFileA;
+    }
+
+    protected String[] getKeysFileB() {
+        return keysFileB;
+    }
+
+    /**
+     * @return full path to file A
+     */
+    protected String getFileNameA() {
+        return fileNameA;
+    }
+
+    /**
+     * @return full path to file B
+     */
+    protected String getFileNameB() {
+        return fileNameB;
+    }
+
+    protected String getKeySeparatorFileA() {
+        return keySeparatorFileA;
+    }
+
+    protected String getKeySeparatorFileB() {
+        return keySeparatorFileB;
+    }
+
+    /**
+     * @return comparator for keys or {@code null} if keys natural order should be used
+     */
+    protected Comparator<String> getKeyComparator() {
+        return keyComparator;
+    }
+
+    protected Charset getCharsetFileA() {
+        return charsetFileA;
+    }
+
+    protected Charset getCharsetFileB() {
+        return charsetFileB;
+    }
+}
@@ -1,8 +1,13 @@
 package net.hor1zont.csv.comparator.twofiles;
 
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Class with logic to compare 2 csv files with logic in comparison rules
@@ -11,13 +16,42 @@ public class FilesComparator {
 
     private final ActionsOnDifference actionsOnDifference;
 
-    private Map<String, Map<String, String>> fileA;
-    private Map<String, Map<String, String>> fileB;
+    private Map<CompositeKey, Map<String, String>> fileA;
+    private Map<CompositeKey, Map<String, String>> fileB;
+
+    /**
+     * Count of pairs of lines which are compared with all rules, lines can be compared in several threads
+     */
+    private final LongAdder comparedRowsCount = new LongAdder();
+
+    private RuleProfiler ruleProfiler;
+
+    /**
+     * Columns of rules are checked in title lines of files on loading, so missing columns are already reported
+     */
+    private boolean columnsChecked;
 
     public FilesComparator(ActionsOnDifference actionsOnDifference) {
         this.actionsOnDifference = actionsOnDifference;
     }
 
+    /**
+     * @param ruleProfiler receiver of time of every evaluation of comparison rules, rules are not profiled if it is
+     * {@code null} (default)
+     */
+    public void setRuleProfiler(RuleProfiler ruleProfiler) {
+        this.ruleProfiler = ruleProfiler;
+    }
+
+    /**
+     * @param columnsChecked {@code true} if columns of comparison rules are checked with
+     * {@link ActionsOnDifference#columnIsNotFoundInHeader} on loading of files, so it is not called again in
+     * {@link #bindRules}
+     */
+    public void setColumnsChecked(boolean columnsChecked) {
+        this.columnsChecked = columnsChecked;
+    }
+
     /**
      * Should be called before compare method
      */
@@ -27,11 +61,30 @@ public class FilesComparator {
             String[] keysFileA,
             String[] keysFileB,
             String testFolder,
-            Map<String, Map<String, String>> fileA,
-            Map<String, Map<String, String>> fileB
+            Map<CompositeKey, Map<String, String>> fileA,
+            Map<CompositeKey, Map<String, String>> fileB
     ) {
         this.fileA = fileA;
         this.fileB = fileB;
+        initActionsOnDifference(
+                pathFileA,
+                pathFileB,
+                keysFileA,
+                keysFileB,
+                testFolder
+        );
+    }
+
+    /**
+     * Pass files information to actions on difference to fill detected errors
+     */
+    protected void initActionsOnDifference(
+            String pathFileA,
+            String pathFileB,
+            String[] keysFileA,
+            String[] keysFileB,
+            String testFolder
+    ) {
         actionsOnDifference.init(
                 pathFileA,
                 pathFileB,
@@ -42,70 +95,188 @@ public class FilesComparator {
     }
 
     /**
-     * Main logic to compare files
+     * Main logic to compare files, all detected errors are kept in memory
      */
     public List<DetectedError> compare(
             ValuesComparisionRule[] valuesComparisionRules
     ) {
         List<DetectedError> detectedErrors = new ArrayList<>();
+        compare(valuesComparisionRules, detectedErrors::add);
+        return detectedErrors;
+    }
 
-        // check every line from file A
-        for (Map.Entry<String, Map<String, String>> rowAWithKey : fileA.entrySet()) {
+    /**
+     * The same as {@link #compare(ValuesComparisionRule[])}, but errors are passed to {@code detectedErrors} as soon
+     * as they are found
+     */
+    public void compare(
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        compare(fileA, fileB, valuesComparisionRules, detectedErrors);
+    }
+
+    /**
+     * Compare Map representations of 2 files
+     */
+    protected void compare(
+            Map<CompositeKey, Map<String, String>> fileA,
+            Map<CompositeKey, Map<String, String>> fileB,
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        BoundComparisionRule[] boundRules = bindRules(valuesComparisionRules, headerOf(fileA), headerOf(fileB));
+        compareRowsOfFileA(fileA.entrySet(), fileB, boundRules, detectedErrors);
+        checkRowsOfFileB(fileB.entrySet(), fileA, detectedErrors);
+    }
+
+    /**
+     * Check lines of file A: find line with the same primary key in file B and compare them
+     */
+    protected void compareRowsOfFileA(
+            Iterable<Map.Entry<CompositeKey, Map<String, String>>> rowsA,
+            Map<CompositeKey, Map<String, String>> fileB,
+            BoundComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        for (Map.Entry<CompositeKey, Map<String, String>> rowAWithKey : rowsA) {
+            if (detectedErrors.isComplete()) {
+                return;
+            }
 
             // find row with the same primary key from file B
-            String primaryKey = rowAWithKey.getKey();
+            CompositeKey primaryKey = rowAWithKey.getKey();
             Map<String, String> rowA = rowAWithKey.getValue();
             Map<String, String> rowB = fileB.get(primaryKey);
             if (rowB == null) {
-                DetectedError detectedError = new DetectedError("primary key is not found in file B");
-                detectedError.setPrimaryKeyA(primaryKey);
-                detectedErrors.add(detectedError);
-                actionsOnDifference.elementIsNotFoundByPrimaryKey(detectedError);
+                reportNotFoundInFileB(primaryKey, detectedErrors);
             } else {
-
-                // Checks are possible if line is found
-                // Check all configured rules
-                for (ValuesComparisionRule valuesComparisionRule : valuesComparisionRules) {
-                    try {
-                        String[] keysA = valuesComparisionRule.getKeysA();
-                        String[] keysB = valuesComparisionRule.getKeysB();
-                        // pass object where we can call method get value
-                        valuesComparisionRule.init(rowA, rowB);
-                        String valueA = valuesComparisionRule.extractValueA();
-                        String valueB = valuesComparisionRule.extractValueB();
-                        if (!valuesComparisionRule.compareValues(valueA, valueB)) {
-                            DetectedError detectedError = new DetectedError("values are not the expected");
-                            actionsOnDifference.valuesAreNotEqual(
-                                    detectedError,
-                                    primaryKey,
-                                    keysA,
-                                    keysB,
-                                    valueA,
-                                    valueB
-                            );
-                            detectedErrors.add(detectedError);
-                        }
-                    } catch (ColumnNotFoundException ex) {
-                        DetectedError detectedError = new DetectedError("column is not found");
-                        actionsOnDifference.columnIsNotFound(detectedError, ex);
-                        detectedErrors.add(detectedError);
-                    }
-                }
+                compareRows(primaryKey, rowA, rowB, valuesComparisionRules, detectedErrors);
             }
         }
+    }
 
-        // check that all records in file B are present in file A
-        for (Map.Entry<String, Map<String, String>> rowBWithKey : fileB.entrySet()) {
-            String primaryKey = rowBWithKey.getKey();
+    /**
+     * Check that lines of file B are present in file A
+     */
+    protected void checkRowsOfFileB(
+            Iterable<Map.Entry<CompositeKey, Map<String, String>>> rowsB,
+            Map<CompositeKey, Map<String, String>> fileA,
+            DetectedErrorSink detectedErrors
+    ) {
+        for (Map.Entry<CompositeKey, Map<String, String>> rowBWithKey : rowsB) {
+            if (detectedErrors.isComplete()) {
+                return;
+            }
+            CompositeKey primaryKey = rowBWithKey.getKey();
             Map<String, String> rowA = fileA.get(primaryKey);
             if (rowA == null) {
-                DetectedError detectedError = new DetectedError("primary key is not found in file A");
-                detectedError.setPrimaryKeyB(primaryKey);
+                reportNotFoundInFileA(primaryKey, detectedErrors);
+            }
+        }
+    }
+
+    /**
+     * Checks are possible if line is found in both files: check all configured rules for 2 lines with the same
+     * primary key
+     */
+    protected void compareRows(
+            CompositeKey primaryKey,
+            Map<String, String> rowA,
+            Map<String, String> rowB,
+            BoundComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        comparedRowsCount.increment();
+        for (BoundComparisionRule valuesComparisionRule : valuesComparisionRules) {
+            try {
+                String[] keysA = valuesComparisionRule.getRule().getKeysA();
+                String[] keysB = valuesComparisionRule.getRule().getKeysB();
+                ComparisonResult comparisonResult = valuesComparisionRule.evaluate(rowA, rowB);
+                if (!comparisonResult.isEqual()) {
+                    DetectedError detectedError = new DetectedError("values are not the expected")
+                            .setRule(valuesComparisionRule.getRule());
+                    actionsOnDifference.valuesAreNotEqual(
+                            detectedError,
+                            primaryKey.toString(),
+                            keysA,
+                            keysB,
+                            comparisonResult.getValueA(),
+                            comparisonResult.getValueB()
+                    );
+                    detectedErrors.add(detectedError);
+                }
+            } catch (ColumnNotFoundException ex) {
+                DetectedError detectedError = new DetectedError("column is not found")
+                        .setRule(valuesComparisionRule.getRule());
+                actionsOnDifference.columnIsNotFound(detectedError, ex);
                 detectedErrors.add(detectedError);
-                actionsOnDifference.elementIsNotFoundByPrimaryKey(detectedError);
             }
         }
-        return detectedErrors;
     }
-}
 
+    /**
+     * @return count of pairs of lines with the same primary key which are compared, every comparison rule is
+     * evaluated once for every pair
+     */
+    public long getComparedRowsCount() {
+        return comparedRowsCount.sum();
+    }
+
+    /**
+     * Resolve columns of comparison rules for title lines of compared files once before comparison. If column is
+     * not found then {@link ActionsOnDifference#columnIsNotFoundInHeader} is called (exception is thrown by default,
+     * it is not called if columns are checked on loading), otherwise rule is used without resolved columns and error
+     * is reported for every compared line.
+     *
+     * @param headerA title line of file A or {@code null} if it is unknown
+     * @param headerB title line of file B or {@code null} if it is unknown
+     */
+    protected BoundComparisionRule[] bindRules(
+            ValuesComparisionRule[] valuesComparisionRules,
+            CsvHeader headerA,
+            CsvHeader headerB
+    ) {
+        BoundComparisionRule[] boundRules = new BoundComparisionRule[valuesComparisionRules.length];
+        for (int i = 0; i < valuesComparisionRules.length; i++) {
+            try {
+                boundRules[i] = valuesComparisionRules[i].bind(headerA, headerB);
+            } catch (ColumnNotFoundException ex) {
+                if (!columnsChecked) {
+                    actionsOnDifference.columnIsNotFoundInHeader(ex);
+                }
+                boundRules[i] = valuesComparisionRules[i].unbound();
+            }
+            if (ruleProfiler != null) {
+                boundRules[i] = boundRules[i].profiled(ruleProfiler);
+            }
+        }
+        return boundRules;
+    }
+
+    /**
+     * @return title line of loaded file or {@code null} if it is unknown (file is empty or lines are not
+     * {@link CsvRow})
+     */
+    protected static CsvHeader headerOf(Map<CompositeKey, Map<String, String>> file) {
+        if (file.isEmpty()) {
+            return null;
+        }
+        Map<String, String> row = file.values().iterator().next();
+        return row instanceof CsvRow ? ((CsvRow) row).getHeader() : null;
+    }
+
+    protected void reportNotFoundInFileB(CompositeKey primaryKey, DetectedErrorSink detectedErrors) {
+        DetectedError detectedError = new DetectedError("primary key is not found in file B");
+        detectedError.setPrimaryKeyA(primaryKey.toString());
+        actionsOnDifference.elementIsNotFoundByPrimaryKey(detectedError);
+        detectedErrors.add(detectedError);
+    }
+
+    protected void reportNotFoundInFileA(CompositeKey primaryKey, DetectedErrorSink detectedErrors) {
+        DetectedError detectedError = new DetectedError("primary key is not found in file A");
+        detectedError.setPrimaryKeyB(primaryKey.toString());
+        actionsOnDifference.elementIsNotFoundByPrimaryKey(detectedError);
+        detectedErrors.add(detectedError);
+    }
+}
@@ -0,0 +1,89 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CsvRow;
+
+/**
+ * Comparison of values joined from several columns (like in {@link ValueExtractor}) without creation of joined
+ * strings: column values and separators of both lines are compared part by part
+ */
+final class JoinedValues {
+
+    static final int EQUAL = 0;
+    static final int NOT_EQUAL = 1;
+
+    /**
+     * Some column has no value in line, joined values cannot be compared
+     */
+    static final int UNKNOWN = 2;
+
+    private JoinedValues() {
+    }
+
+    /**
+     * @return {@link #EQUAL} if joined values of both lines are equal strings, {@link #NOT_EQUAL} if they are not
+     * equal or {@link #UNKNOWN} if some column value is absent
+     */
+    static int compare(
+            CsvRow rowA,
+            int[] columnsA,
+            String separatorA,
+            CsvRow rowB,
+            int[] columnsB,
+            String separatorB
+    ) {
+        int lengthA = joinedLength(rowA, columnsA, separatorA);
+        int lengthB = joinedLength(rowB, columnsB, separatorB);
+        if (lengthA < 0 || lengthB < 0) {
+            return UNKNOWN;
+        }
+        if (lengthA != lengthB) {
+            return NOT_EQUAL;
+        }
+
+        // Joined value is a sequence of parts: value, separator, value, ..., value
+        int partsCountA = columnsA.length * 2 - 1;
+        int partsCountB = columnsB.length * 2 - 1;
+        int partA = 0;
+        int partB = 0;
+        int offsetA = 0;
+        int offsetB = 0;
+        while (partA < partsCountA && partB < partsCountB) {
+            String valueA = part(rowA, columnsA, separatorA, partA);
+            String valueB = part(rowB, columnsB, separatorB, partB);
+            int length = Math.min(valueA.length() - offsetA, valueB.length() - offsetB);
+            if (!valueA.regionMatches(offsetA, valueB, offsetB, length)) {
+                return NOT_EQUAL;
+            }
+            offsetA += length;
+            offsetB += length;
+            if (offsetA == valueA.length()) {
+                partA++;
+                offsetA = 0;
+            }
+            if (offsetB == valueB.length()) {
+                partB++;
+                offsetB = 0;
+            }
+        }
+        return EQUAL;
+    }
+
+    private static String part(CsvRow row, int[] columns, String separator, int part) {
+        return part % 2 == 0 ? row.get(columns[part / 2]) : separator;
+    }
+
+    /**
+     * @return length of joined value or -1 if some column value is absent
+     */
+    private static int joinedLength(CsvRow row, int[] columns, String separator) {
+        int length = separator.length() * (columns.length - 1);
+        for (int column : columns) {
+            String value = row.get(column);
+            if (value == null) {
+                return -1;
+            }
+            length += value.length();
+        }
+        return length;
+    }
+}
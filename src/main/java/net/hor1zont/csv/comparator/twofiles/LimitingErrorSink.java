@@ -0,0 +1,170 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Limits count of errors which are passed to report: errors over limit for their reason or comparison rule are only
+ * counted. When total limit is reached comparison is stopped (see {@link DetectedErrorSink#isComplete()}), so the
+ * counters are complete only if total limit is not reached.
+ * <p>
+ * If sample size is set then errors are not passed to report at once: random sample of errors within limits is
+ * collected (reservoir sampling) and passed to report in order of detection in {@link #close()}.
+ * <p>
+ * Errors should be added in one thread, {@link #isComplete()} can be checked from any thread.
+ */
+public class LimitingErrorSink implements DetectedErrorSink, Closeable {
+
+    private static final Logger LOG = LogManager.getLogger(LimitingErrorSink.class);
+
+    /**
+     * Value of any limit or sample size to switch it off
+     */
+    public static final int NO_LIMIT = 0;
+
+    /**
+     * Seed of random to select sample, the same sample is selected for the same errors
+     */
+    private static final long SAMPLING_SEED = 42;
+
+    private final DetectedErrorSink report;
+    private final int maxErrors;
+    private final int maxErrorsPerRule;
+    private final int maxErrorsPerReason;
+    private final int sampleSize;
+
+    private long errorsCount;
+    private long acceptedErrorsCount;
+    private final Map<String, Long> errorsCountByReason = new LinkedHashMap<>();
+    private final Map<ValuesComparisionRule, Long> errorsCountByRule = new HashMap<>();
+    private volatile boolean complete;
+    private boolean closed;
+
+    /**
+     * Sample of accepted errors with their numbers among accepted errors
+     */
+    private final DetectedError[] sample;
+    private final long[] sampleNumbers;
+    private final Random random = new Random(SAMPLING_SEED);
+
+    /**
+     * @param report receiver of errors within limits
+     * @param maxErrors count of errors within limits to stop comparison
+     * @param maxErrorsPerRule max count of errors of every comparison rule which are passed to report
+     * @param maxErrorsPerReason max count of errors with the same reason which are passed to report
+     * @param sampleSize size of random sample of errors which is passed to report
+     */
+    public LimitingErrorSink(
+            DetectedErrorSink report,
+            int maxErrors,
+            int maxErrorsPerRule,
+            int maxErrorsPerReason,
+            int sampleSize
+    ) {
+        this.report = report;
+        this.maxErrors = maxErrors;
+        this.maxErrorsPerRule = maxErrorsPerRule;
+        this.maxErrorsPerReason = maxErrorsPerReason;
+        this.sampleSize = sampleSize;
+        this.sample = sampleSize == NO_LIMIT ? null : new DetectedError[sampleSize];
+        this.sampleNumbers = sampleSize == NO_LIMIT ? null : new long[sampleSize];
+    }
+
+    @Override
+    public void add(DetectedError detectedError) {
+        errorsCount++;
+        long countOfReason = errorsCountByReason.merge(detectedError.getReason(), 1L, Long::sum);
+        long countOfRule = detectedError.getRule() == null
+                ? 0
+                : errorsCountByRule.merge(detectedError.getRule(), 1L, Long::sum);
+        if (complete
+                || isOverLimit(countOfReason, maxErrorsPerReason)
+                || isOverLimit(countOfRule, maxErrorsPerRule)) {
+            return;
+        }
+        if (sample == null) {
+            report.add(detectedError);
+        } else {
+            addToSample(detectedError, acceptedErrorsCount);
+        }
+        acceptedErrorsCount++;
+        if (maxErrors != NO_LIMIT && acceptedErrorsCount >= maxErrors) {
+            complete = true;
+        }
+    }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return count of all detected errors (including errors over limits)
+     */
+    public long getErrorsCount() {
+        return errorsCount;
+    }
+
+    /**
+     * @return count of all detected errors for every reason in order of first occurrence
+     */
+    public Map<String, Long> getErrorsCountByReason() {
+        return Collections.unmodifiableMap(errorsCountByReason);
+    }
+
+    /**
+     * Pass sample to report (if sampling is used) and log count of errors which are not reported
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (sample != null) {
+            passSampleToReport();
+        }
+        long reportedErrorsCount = sample == null ? acceptedErrorsCount : Math.min(acceptedErrorsCount, sampleSize);
+        if (reportedErrorsCount < errorsCount || complete) {
+            LOG.warn(String.format("%s differences were found%s, only %s of them are reported",
+                    errorsCount, complete ? " before comparison was stopped" : "", reportedErrorsCount));
+        }
+    }
+
+    private static boolean isOverLimit(long count, int limit) {
+        return limit != NO_LIMIT && count > limit;
+    }
+
+    private void addToSample(DetectedError detectedError, long number) {
+        if (number < sampleSize) {
+            sample[(int) number] = detectedError;
+            sampleNumbers[(int) number] = number;
+            return;
+        }
+        long index = Math.floorMod(random.nextLong(), number + 1);
+        if (index < sampleSize) {
+            sample[(int) index] = detectedError;
+            sampleNumbers[(int) index] = number;
+        }
+    }
+
+    private void passSampleToReport() {
+        int size = (int) Math.min(acceptedErrorsCount, sampleSize);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (index1, index2) -> Long.compare(sampleNumbers[index1], sampleNumbers[index2]));
+        for (Integer index : order) {
+            report.add(sample[index]);
+        }
+    }
+}
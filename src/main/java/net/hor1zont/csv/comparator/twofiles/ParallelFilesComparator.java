@@ -0,0 +1,140 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.utils.ParallelUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Class with logic to compare 2 csv files loaded into memory in several threads: lines of every file are split into
+ * ranges of neighbour lines and every range is compared in separate thread. Ranges are taken from files one by one
+ * only when they can be compared, so only a few ranges and their errors are kept in memory at once. Detected errors
+ * of all ranges are joined in order of lines, so result is the same as in {@link FilesComparator}. Comparison rules
+ * (validators and extractors) and actions on difference are used from several threads at once, so they should not
+ * keep any state.
+ */
+public class ParallelFilesComparator extends FilesComparator {
+
+    /**
+     * Count of lines in one range
+     */
+    public static final int RANGE_SIZE = 4096;
+
+    private final int threadsCount;
+
+    /**
+     * Comparison of ranges is stopped if no more errors are needed, it is set in the current thread
+     */
+    private volatile boolean complete;
+
+    public ParallelFilesComparator(ActionsOnDifference actionsOnDifference, int threadsCount) {
+        super(actionsOnDifference);
+        this.threadsCount = threadsCount;
+    }
+
+    @Override
+    protected void compare(
+            Map<CompositeKey, Map<String, String>> fileA,
+            Map<CompositeKey, Map<String, String>> fileB,
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        if (threadsCount <= 1) {
+            super.compare(fileA, fileB, valuesComparisionRules, detectedErrors);
+            return;
+        }
+        BoundComparisionRule[] boundRules = bindRules(valuesComparisionRules, headerOf(fileA), headerOf(fileB));
+        complete = detectedErrors.isComplete();
+
+        // check every line from file A, then check that all records in file B are present in file A
+        RangeTasks comparisons = new RangeTasks(
+                fileA.entrySet().iterator(),
+                rangeA -> () -> {
+                    List<DetectedError> rangeErrors = new ArrayList<>();
+                    compareRowsOfFileA(rangeA, fileB, boundRules, rangeSink(rangeErrors));
+                    return rangeErrors;
+                },
+                new RangeTasks(
+                        fileB.entrySet().iterator(),
+                        rangeB -> () -> {
+                            List<DetectedError> rangeErrors = new ArrayList<>();
+                            checkRowsOfFileB(rangeB, fileA, rangeSink(rangeErrors));
+                            return rangeErrors;
+                        },
+                        null
+                )
+        );
+        ParallelUtil.runInOrder(comparisons, threadsCount, detectedError -> {
+            detectedErrors.add(detectedError);
+            complete = detectedErrors.isComplete();
+        });
+    }
+
+    /**
+     * @return receiver of errors of one range, range is not compared any more if no more errors are needed
+     */
+    private DetectedErrorSink rangeSink(List<DetectedError> rangeErrors) {
+        return new DetectedErrorSink() {
+
+            @Override
+            public void add(DetectedError detectedError) {
+                rangeErrors.add(detectedError);
+            }
+
+            @Override
+            public boolean isComplete() {
+                return complete;
+            }
+        };
+    }
+
+    /**
+     * Tasks to compare ranges of {@link #RANGE_SIZE} lines, lines are taken from iterator of file when task is
+     * requested. Tasks of {@code next} are returned after all lines of the file.
+     */
+    private final class RangeTasks implements Iterator<Callable<List<DetectedError>>> {
+
+        private final Iterator<Map.Entry<CompositeKey, Map<String, String>>> rows;
+        private final Function<List<Map.Entry<CompositeKey, Map<String, String>>>, Callable<List<DetectedError>>> task;
+        private final RangeTasks next;
+
+        RangeTasks(
+                Iterator<Map.Entry<CompositeKey, Map<String, String>>> rows,
+                Function<List<Map.Entry<CompositeKey, Map<String, String>>>, Callable<List<DetectedError>>> task,
+                RangeTasks next
+        ) {
+            this.rows = rows;
+            this.task = task;
+            this.next = next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (complete) {
+                return false;
+            }
+            return rows.hasNext() || next != null && next.hasNext();
+        }
+
+        @Override
+        public Callable<List<DetectedError>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (!rows.hasNext()) {
+                return next.next();
+            }
+            List<Map.Entry<CompositeKey, Map<String, String>>> range = new ArrayList<>(RANGE_SIZE);
+            while (rows.hasNext() && range.size() < RANGE_SIZE) {
+                range.add(rows.next());
+            }
+            return task.apply(range);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.HashPartitioner;
+import net.hor1zont.csv.comparator.utils.ParallelUtil;
+import org.apache.commons.csv.CSVParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Class with logic to compare 2 csv files which are too big to be loaded into memory: both files are split into
+ * partitions by hash of key with {@link HashPartitioner}, then every pair of partitions with the same number is
+ * loaded and compared like in {@link FilesComparator}. Partitions can be compared in several threads. Detected
+ * errors are ordered by partition number, so result is the same for any count of threads.
+ * <p>
+ * Key comparator (if it is set) should treat as equal only keys which are equal strings: keys which are equal for
+ * comparator but have different values can be written into different partitions.
+ */
+public class PartitionedFilesComparator extends FileReadingComparator {
+
+    /**
+     * Count of partitions is calculated from files size and available memory
+     */
+    public static final int AUTO_PARTITIONS_COUNT = 0;
+
+    private final HashPartitioner hashPartitioner;
+    private final int partitionsCount;
+    private final int threadsCount;
+
+    /**
+     * @param partitionsCount count of partitions or {@link #AUTO_PARTITIONS_COUNT}
+     * @param threadsCount count of threads to compare partitions
+     */
+    public PartitionedFilesComparator(
+            ActionsOnDifference actionsOnDifference,
+            CsvUtil csvUtil,
+            HashPartitioner hashPartitioner,
+            int partitionsCount,
+            int threadsCount
+    ) {
+        super(actionsOnDifference, csvUtil);
+        this.hashPartitioner = hashPartitioner;
+        this.partitionsCount = partitionsCount;
+        this.threadsCount = threadsCount;
+    }
+
+    /**
+     * Split both files into partitions and compare them, temporary partition files are removed after comparison
+     */
+    @Override
+    public void compare(
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        int partitionsCount = this.partitionsCount == AUTO_PARTITIONS_COUNT
+                ? HashPartitioner.estimatePartitionsCount(
+                CsvUtil.estimateDataSize(getFileNameA()) + CsvUtil.estimateDataSize(getFileNameB()),
+                HashPartitioner.getAvailableMemory(),
+                threadsCount
+        )
+                : this.partitionsCount;
+        List<Path> partitionsA = Collections.emptyList();
+        List<Path> partitionsB = Collections.emptyList();
+        try {
+            partitionsA = hashPartitioner.partition(
+                    getFileNameA(),
+                    getKeysFileA(),
+                    getKeySeparatorFileA(),
+                    getCharsetFileA(),
+                    partitionsCount
+            );
+            partitionsB = hashPartitioner.partition(
+                    getFileNameB(),
+                    getKeysFileB(),
+                    getKeySeparatorFileB(),
+                    getCharsetFileB(),
+                    partitionsCount
+            );
+            List<Callable<List<DetectedError>>> comparisons = new ArrayList<>();
+            for (int i = 0; i < partitionsCount; i++) {
+                Path partitionA = partitionsA.get(i);
+                Path partitionB = partitionsB.get(i);
+                comparisons.add(() -> detectedErrors.isComplete()
+                        ? Collections.emptyList()
+                        : comparePartition(partitionA, partitionB, valuesComparisionRules));
+            }
+            ParallelUtil.runInOrder(comparisons, threadsCount, detectedErrors::add);
+        } finally {
+            CsvUtil.deleteTemporaryFiles(partitionsA);
+            CsvUtil.deleteTemporaryFiles(partitionsB);
+        }
+    }
+
+    private List<DetectedError> comparePartition(
+            Path partitionA,
+            Path partitionB,
+            ValuesComparisionRule[] valuesComparisionRules
+    ) {
+        List<DetectedError> partitionErrors = new ArrayList<>();
+        Map<CompositeKey, Map<String, String>> fileA = loadPartition(
+                partitionA,
+                getFileNameA(),
+                getKeysFileA(),
+                getKeySeparatorFileA(),
+                partitionErrors::add
+        );
+        Map<CompositeKey, Map<String, String>> fileB = loadPartition(
+                partitionB,
+                getFileNameB(),
+                getKeysFileB(),
+                getKeySeparatorFileB(),
+                partitionErrors::add
+        );
+        compare(fileA, fileB, valuesComparisionRules, partitionErrors::add);
+        return partitionErrors;
+    }
+
+    private Map<CompositeKey, Map<String, String>> loadPartition(
+            Path partition,
+            String fileName,
+            String[] keyElementNames,
+            String keyElementNamesSeparator,
+            DetectedErrorSink detectedErrors
+    ) {
+        Map<CompositeKey, Map<String, String>> fileMapRepresentation =
+                new TreeMap<>(CompositeKey.comparator(getKeyComparator()));
+        try (CSVParser lines = CsvUtil.openTemporaryFile(partition)) {
+            CsvUtil.convertLinesToFormattedMap(
+                    lines,
+                    fileName,
+                    keyElementNames,
+                    keyElementNamesSeparator,
+                    fileMapRepresentation,
+                    detectedErrors,
+                    null
+            );
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Fail to read partition of file [%s]", fileName), ex);
+        }
+        return fileMapRepresentation;
+    }
+}
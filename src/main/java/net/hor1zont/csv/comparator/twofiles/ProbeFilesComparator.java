@@ -0,0 +1,145 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class with logic to compare 2 csv files when only one of them fits into memory: the smaller file is loaded into
+ * memory (build side) and the larger file is read line by line (probe side), see {@link #isBuildSideA()}. Every line
+ * of probe file is compared with the line of build file with the same key as soon as it is read and lines of probe
+ * file are not kept in memory. Matched line of build file is replaced with {@link #MATCHED} mark, so matches are
+ * recorded without copies of keys and compared lines are released. Detected errors are filled the same way as in
+ * {@link FilesComparator} whichever file is the build side.
+ * <p>
+ * Differences are reported in order of lines of probe file, lines of build file which are not found in probe file are
+ * reported after the end of probe file. Duplications of build file are handled the same way as in
+ * {@link FilesComparator}. A line of probe file with the key of already matched line is reported as duplication and
+ * ignored, lines of probe file which are not found in build file are reported one by one (their duplications are not
+ * searched).
+ */
+public class ProbeFilesComparator extends FileReadingComparator {
+
+    /**
+     * Value of line of build file which is already matched with line of probe file, it is compared by reference
+     */
+    private static final Map<String, String> MATCHED = Collections.unmodifiableMap(new HashMap<>());
+
+    public ProbeFilesComparator(ActionsOnDifference actionsOnDifference, CsvUtil csvUtil) {
+        super(actionsOnDifference, csvUtil);
+    }
+
+    /**
+     * Main logic: load build file, probe it with lines of probe file and report not matched lines of build file
+     */
+    @Override
+    public void compare(
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        boolean buildSideA = isBuildSideA();
+        String probeFileName = buildSideA ? getFileNameB() : getFileNameA();
+        String[] probeKeys = buildSideA ? getKeysFileB() : getKeysFileA();
+        Map<CompositeKey, Map<String, String>> buildFile = buildSideA
+                ? loadFile(getFileNameA(), getKeysFileA(), getKeySeparatorFileA(), getCharsetFileA(), detectedErrors)
+                : loadFile(getFileNameB(), getKeysFileB(), getKeySeparatorFileB(), getCharsetFileB(), detectedErrors);
+        try (CSVParser probeLines = getCsvUtil().openCsvFile(
+                probeFileName,
+                buildSideA ? getCharsetFileB() : getCharsetFileA()
+        )) {
+            CsvHeader probeHeader = CsvHeader.of(probeLines);
+            int[] probeKeyColumns = CsvUtil.resolveKeyColumns(probeHeader, probeKeys, probeFileName);
+            String probeKeySeparator = buildSideA ? getKeySeparatorFileB() : getKeySeparatorFileA();
+            BoundComparisionRule[] boundRules = buildSideA
+                    ? bindRules(valuesComparisionRules, headerOf(buildFile), probeHeader)
+                    : bindRules(valuesComparisionRules, probeHeader, headerOf(buildFile));
+            for (CSVRecord probeLine : probeLines) {
+                if (detectedErrors.isComplete()) {
+                    return;
+                }
+                CompositeKey primaryKey = CsvUtil.buildKey(probeLine, probeKeyColumns, probeKeySeparator);
+                Map<String, String> buildRow = buildFile.get(primaryKey);
+                if (buildRow == null) {
+                    reportNotFound(buildSideA, primaryKey, detectedErrors);
+                    continue;
+                }
+                if (buildRow == MATCHED) {
+                    CsvUtil.fillDetectedError(probeFileName, probeKeys, detectedErrors,
+                            CsvRow.of(probeHeader, probeLine));
+                    continue;
+                }
+
+                // value of existing key is replaced, key of build file is kept
+                buildFile.put(primaryKey, MATCHED);
+                if (buildSideA) {
+                    compareRows(primaryKey, buildRow, CsvRow.of(probeHeader, probeLine), boundRules, detectedErrors);
+                } else {
+                    compareRows(primaryKey, CsvRow.of(probeHeader, probeLine), buildRow, boundRules, detectedErrors);
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Fail to read compared files", ex);
+        }
+        for (Map.Entry<CompositeKey, Map<String, String>> buildLine : buildFile.entrySet()) {
+            if (detectedErrors.isComplete()) {
+                return;
+            }
+            if (buildLine.getValue() != MATCHED) {
+                reportNotFound(!buildSideA, buildLine.getKey(), detectedErrors);
+            }
+        }
+    }
+
+    /**
+     * Choose file to load into memory: the file with smaller estimated size of content, see
+     * {@link CsvUtil#estimateDataSize}. Can be overridden to choose build side in another way
+     *
+     * @return {@code true} if file A should be loaded into memory and file B should be read line by line
+     */
+    protected boolean isBuildSideA() {
+        return CsvUtil.estimateDataSize(getFileNameA()) <= CsvUtil.estimateDataSize(getFileNameB());
+    }
+
+    /**
+     * Load build file into memory: lines are found by key in hash index or in sorted Map if key comparator is set
+     */
+    protected Map<CompositeKey, Map<String, String>> loadFile(
+            String fileName,
+            String[] keys,
+            String keySeparator,
+            Charset charset,
+            DetectedErrorSink detectedErrors
+    ) {
+        if (getKeyComparator() == null) {
+            return getCsvUtil().convertFileToHashIndex(fileName, keys, keySeparator, charset, detectedErrors, null);
+        }
+        return getCsvUtil().convertFileToFormattedMap(
+                fileName,
+                keys,
+                keySeparator,
+                getKeyComparator(),
+                charset,
+                detectedErrors
+        );
+    }
+
+    /**
+     * @param inFileA {@code true} if key is not found in file A, {@code false} if key is not found in file B
+     */
+    private void reportNotFound(boolean inFileA, CompositeKey primaryKey, DetectedErrorSink detectedErrors) {
+        if (inFileA) {
+            reportNotFoundInFileA(primaryKey, detectedErrors);
+        } else {
+            reportNotFoundInFileB(primaryKey, detectedErrors);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates time of extraction of values and time of validation of extracted values for every comparison rule, so
+ * slow custom {@link ValueExtractor} and {@link TwoValuesValidator} can be found. Time is measured with
+ * {@link System#nanoTime()} around every evaluation of rule, rules can be evaluated in several threads.
+ * <p>
+ * Values which are compared without extraction (see {@link BoundComparisionRule#evaluate}) are counted as validation.
+ */
+public class RuleProfiler {
+
+    private final Map<ValuesComparisionRule, RuleProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * @return accumulators of the rule, the same accumulators are returned for the same rule
+     */
+    public RuleProfile getProfile(ValuesComparisionRule rule) {
+        return profiles.computeIfAbsent(rule, RuleProfile::new);
+    }
+
+    /**
+     * @return profiles of rules in order of total time (the most expensive rule is the first)
+     */
+    public List<RuleProfile> getProfiles() {
+        List<RuleProfile> sortedProfiles = new ArrayList<>(profiles.values());
+        sortedProfiles.sort((profile1, profile2) -> Long.compare(profile2.getTotalNanos(), profile1.getTotalNanos()));
+        return sortedProfiles;
+    }
+
+    /**
+     * Accumulated time of one rule
+     */
+    public static final class RuleProfile {
+
+        private final ValuesComparisionRule rule;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder extractionNanos = new LongAdder();
+        private final LongAdder validationNanos = new LongAdder();
+
+        RuleProfile(ValuesComparisionRule rule) {
+            this.rule = rule;
+        }
+
+        void addExtraction(long nanos) {
+            extractionNanos.add(nanos);
+        }
+
+        void addValidation(long nanos) {
+            evaluations.increment();
+            validationNanos.add(nanos);
+        }
+
+        public ValuesComparisionRule getRule() {
+            return rule;
+        }
+
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        public long getExtractionNanos() {
+            return extractionNanos.sum();
+        }
+
+        public long getValidationNanos() {
+            return validationNanos.sum();
+        }
+
+        public long getTotalNanos() {
+            return getExtractionNanos() + getValidationNanos();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps measurements of comparison run in memory. Peak heap usage is estimated as sum of peak usages of heap memory
+ * pools since creation of metrics (pools reach their peaks at different moments, so it can be more than real peak).
+ */
+public class RunMetrics implements ComparisonMetrics {
+
+    private static final Logger LOG = LogManager.getLogger(RunMetrics.class);
+
+    /**
+     * Count of profiled rules with the most time which are logged
+     */
+    public static final int MOST_EXPENSIVE_RULES_COUNT = 10;
+
+    private final List<PhaseMetrics> phases = new ArrayList<>();
+    private final Map<ValuesComparisionRule, RuleMetrics> rules = new LinkedHashMap<>();
+
+    public RunMetrics() {
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.isValid()) {
+                memoryPool.resetPeakUsage();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void addPhase(Phase phase, long wallTimeNanos, long rows, long bytes) {
+        phases.add(new PhaseMetrics(phase, wallTimeNanos, rows, bytes, estimatePeakHeapBytes()));
+    }
+
+    @Override
+    public synchronized void addRuleEvaluations(ValuesComparisionRule rule, long evaluations) {
+        rules.computeIfAbsent(rule, RuleMetrics::new).evaluations += evaluations;
+    }
+
+    @Override
+    public synchronized void addRuleProfile(ValuesComparisionRule rule, long extractionNanos, long validationNanos) {
+        RuleMetrics ruleMetrics = rules.computeIfAbsent(rule, RuleMetrics::new);
+        ruleMetrics.profiled = true;
+        ruleMetrics.extractionNanos += extractionNanos;
+        ruleMetrics.validationNanos += validationNanos;
+    }
+
+    /**
+     * @return measurements of phases in order of their end
+     */
+    public synchronized List<PhaseMetrics> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    /**
+     * @return count of evaluations of every comparison rule
+     */
+    public synchronized Map<ValuesComparisionRule, Long> getRuleEvaluations() {
+        Map<ValuesComparisionRule, Long> ruleEvaluations = new LinkedHashMap<>();
+        rules.forEach((rule, ruleMetrics) -> ruleEvaluations.put(rule, ruleMetrics.getEvaluations()));
+        return Collections.unmodifiableMap(ruleEvaluations);
+    }
+
+    /**
+     * @return profiled rules in order of total time (the most expensive rule is the first)
+     */
+    public synchronized List<RuleMetrics> getMostExpensiveRules(int count) {
+        List<RuleMetrics> profiledRules = new ArrayList<>();
+        for (RuleMetrics ruleMetrics : rules.values()) {
+            if (ruleMetrics.isProfiled()) {
+                profiledRules.add(ruleMetrics);
+            }
+        }
+        profiledRules.sort((rule1, rule2) -> Long.compare(rule2.getTotalNanos(), rule1.getTotalNanos()));
+        return profiledRules.subList(0, Math.min(count, profiledRules.size()));
+    }
+
+    @Override
+    public synchronized void log() {
+        for (PhaseMetrics phase : phases) {
+            LOG.info(String.format("%s: %s ms, %s rows (%s rows/s), %s bytes (%s bytes/s), peak heap %s MB",
+                    phase.getPhase(),
+                    phase.getWallTimeMillis(),
+                    phase.getRows(),
+                    phase.getRowsPerSecond(),
+                    phase.getBytes(),
+                    phase.getBytesPerSecond(),
+                    phase.getPeakHeapBytes() / (1024 * 1024)
+            ));
+        }
+        rules.forEach((rule, ruleMetrics) -> LOG.info(String.format("rule %s: %s evaluations",
+                describe(rule),
+                ruleMetrics.getEvaluations()
+        )));
+        List<RuleMetrics> mostExpensiveRules = getMostExpensiveRules(MOST_EXPENSIVE_RULES_COUNT);
+        if (!mostExpensiveRules.isEmpty()) {
+            LOG.info("The most expensive rules:");
+        }
+        for (RuleMetrics ruleMetrics : mostExpensiveRules) {
+            LOG.info(String.format("rule %s: extraction %s ms, validation %s ms, %s ns per evaluation",
+                    describe(ruleMetrics.getRule()),
+                    TimeUnit.NANOSECONDS.toMillis(ruleMetrics.getExtractionNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(ruleMetrics.getValidationNanos()),
+                    ruleMetrics.getEvaluations() == 0 ? 0 : ruleMetrics.getTotalNanos() / ruleMetrics.getEvaluations()
+            ));
+        }
+    }
+
+    @Override
+    public synchronized void writeToJsonFile(String fileName, @Nullable Charset fileCharset) {
+        try (BufferedWriter writer = Files.newBufferedWriter(
+                Paths.get(fileName),
+                fileCharset == null ? CsvUtil.DEFAULT_FILE_CHARSET : fileCharset
+        )) {
+            writer.write(toJson());
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Fail to write metrics into file [%s]", fileName), ex);
+        }
+    }
+
+    /**
+     * @return all measurements as json object
+     */
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"phases\": [");
+        for (int i = 0; i < phases.size(); i++) {
+            PhaseMetrics phase = phases.get(i);
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"phase\": \"").append(phase.getPhase())
+                    .append("\", \"wallTimeMillis\": ").append(phase.getWallTimeMillis())
+                    .append(", \"rows\": ").append(phase.getRows())
+                    .append(", \"rowsPerSecond\": ").append(phase.getRowsPerSecond())
+                    .append(", \"bytes\": ").append(phase.getBytes())
+                    .append(", \"bytesPerSecond\": ").append(phase.getBytesPerSecond())
+                    .append(", \"peakHeapBytes\": ").append(phase.getPeakHeapBytes())
+                    .append('}');
+        }
+        json.append(phases.isEmpty() ? "],\n  \"rules\": [" : "\n  ],\n  \"rules\": [");
+        String separator = "\n";
+        for (RuleMetrics ruleMetrics : rules.values()) {
+            json.append(separator).append("    {\"rule\": ");
+            appendJsonString(json, describe(ruleMetrics.getRule()));
+            json.append(", \"evaluations\": ").append(ruleMetrics.getEvaluations());
+            if (ruleMetrics.isProfiled()) {
+                json.append(", \"extractionNanos\": ").append(ruleMetrics.getExtractionNanos())
+                        .append(", \"validationNanos\": ").append(ruleMetrics.getValidationNanos());
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append(rules.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return json.toString();
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            if (symbol == '"' || symbol == '\\') {
+                json.append('\\').append(symbol);
+            } else if (symbol < ' ') {
+                json.append(String.format("\\u%04x", (int) symbol));
+            } else {
+                json.append(symbol);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String describe(ValuesComparisionRule rule) {
+        return Arrays.toString(rule.getKeysA()) + " - " + Arrays.toString(rule.getKeysB());
+    }
+
+    private static long estimatePeakHeapBytes() {
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.getPeakUsage() != null) {
+                peakHeapBytes += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        return peakHeapBytes;
+    }
+
+    /**
+     * Measurements of one phase
+     */
+    public static final class PhaseMetrics {
+
+        private final Phase phase;
+        private final long wallTimeNanos;
+        private final long rows;
+        private final long bytes;
+        private final long peakHeapBytes;
+
+        PhaseMetrics(Phase phase, long wallTimeNanos, long rows, long bytes, long peakHeapBytes) {
+            this.phase = phase;
+            this.wallTimeNanos = wallTimeNanos;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        public long getWallTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(wallTimeNanos);
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return estimate of peak heap usage since start of run till the end of phase
+         */
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        public long getRowsPerSecond() {
+            return perSecond(rows);
+        }
+
+        public long getBytesPerSecond() {
+            return perSecond(bytes);
+        }
+
+        private long perSecond(long count) {
+            return wallTimeNanos <= 0 ? 0 : (long) (count * (double) TimeUnit.SECONDS.toNanos(1) / wallTimeNanos);
+        }
+    }
+
+    /**
+     * Measurements of one comparison rule
+     */
+    public static final class RuleMetrics {
+
+        private final ValuesComparisionRule rule;
+        private long evaluations;
+        private boolean profiled;
+        private long extractionNanos;
+        private long validationNanos;
+
+        RuleMetrics(ValuesComparisionRule rule) {
+            this.rule = rule;
+        }
+
+        public ValuesComparisionRule getRule() {
+            return rule;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        /**
+         * @return {@code true} if time of the rule is measured
+         */
+        public boolean isProfiled() {
+            return profiled;
+        }
+
+        public long getExtractionNanos() {
+            return extractionNanos;
+        }
+
+        public long getValidationNanos() {
+            return validationNanos;
+        }
+
+        public long getTotalNanos() {
+            return extractionNanos + validationNanos;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class with logic to compare 2 csv files which are already sorted by key columns (in order of key comparator).
+ * Files are read together line by line in one pass and only lines with the current key are kept in memory, so
+ * size of files is not limited by heap size. Detected errors are the same as in {@link FilesComparator}, but they
+ * are ordered by key (duplications are reported together with other differences)
+ */
+public class SortedFilesComparator extends FileReadingComparator {
+
+    public SortedFilesComparator(ActionsOnDifference actionsOnDifference, CsvUtil csvUtil) {
+        super(actionsOnDifference, csvUtil);
+    }
+
+    /**
+     * Main logic to compare sorted files: walk both files together like in merge of 2 sorted lists
+     */
+    @Override
+    public void compare(
+            ValuesComparisionRule[] valuesComparisionRules,
+            DetectedErrorSink detectedErrors
+    ) {
+        Comparator<CompositeKey> keyComparator = CompositeKey.comparator(getKeyComparator());
+        try (
+                SortedLinesReader readerA = new SortedLinesReader(
+                        openSortedFileA(),
+                        getFileNameA(),
+                        getKeysFileA(),
+                        getKeySeparatorFileA(),
+                        keyComparator,
+                        detectedErrors
+                );
+                SortedLinesReader readerB = new SortedLinesReader(
+                        openSortedFileB(),
+                        getFileNameB(),
+                        getKeysFileB(),
+                        getKeySeparatorFileB(),
+                        keyComparator,
+                        detectedErrors
+                )
+        ) {
+            BoundComparisionRule[] boundRules = bindRules(
+                    valuesComparisionRules,
+                    readerA.getHeader(),
+                    readerB.getHeader()
+            );
+            Map.Entry<CompositeKey, Map<String, String>> rowAWithKey = readerA.next();
+            Map.Entry<CompositeKey, Map<String, String>> rowBWithKey = readerB.next();
+            while ((rowAWithKey != null || rowBWithKey != null) && !detectedErrors.isComplete()) {
+                int keysComparison;
+                if (rowAWithKey == null) {
+                    keysComparison = 1;
+                } else if (rowBWithKey == null) {
+                    keysComparison = -1;
+                } else {
+                    keysComparison = keyComparator.compare(rowAWithKey.getKey(), rowBWithKey.getKey());
+                }
+
+                if (keysComparison < 0) {
+                    reportNotFoundInFileB(rowAWithKey.getKey(), detectedErrors);
+                    rowAWithKey = readerA.next();
+                } else if (keysComparison > 0) {
+                    reportNotFoundInFileA(rowBWithKey.getKey(), detectedErrors);
+                    rowBWithKey = readerB.next();
+                } else {
+                    compareRows(
+                            rowAWithKey.getKey(),
+                            rowAWithKey.getValue(),
+                            rowBWithKey.getValue(),
+                            boundRules,
+                            detectedErrors
+                    );
+                    rowAWithKey = readerA.next();
+                    rowBWithKey = readerB.next();
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Fail to read compared files", ex);
+        }
+    }
+
+    /**
+     * Open file A to compare, can be overridden if sorted lines should be read from another place than source file
+     */
+    protected CSVParser openSortedFileA() throws IOException {
+        return getCsvUtil().openCsvFile(getFileNameA(), getCharsetFileA());
+    }
+
+    /**
+     * Open file B to compare, can be overridden if sorted lines should be read from another place than source file
+     */
+    protected CSVParser openSortedFileB() throws IOException {
+        return getCsvUtil().openCsvFile(getFileNameB(), getCharsetFileB());
+    }
+
+    /**
+     * Reads sorted file and returns lines with unique keys one by one. Lines with the same key are handled the same
+     * way as in {@link CsvUtil#convertFileToFormattedMap}: every pair of duplicated lines is ignored and reported
+     */
+    private static class SortedLinesReader implements Closeable {
+
+        private final CSVParser parser;
+        private final CsvHeader header;
+        private final Iterator<CSVRecord> lines;
+        private final String fileName;
+        private final String[] keyElementNames;
+        private final int[] keyColumns;
+        private final String keyElementNamesSeparator;
+        private final Comparator<CompositeKey> keyComparator;
+        private final DetectedErrorSink detectedErrors;
+
+        /**
+         * Line which is already read but is not returned yet
+         */
+        private CSVRecord nextLine;
+        private CompositeKey nextKey;
+
+        SortedLinesReader(
+                CSVParser parser,
+                String fileName,
+                String[] keyElementNames,
+                String keyElementNamesSeparator,
+                Comparator<CompositeKey> keyComparator,
+                DetectedErrorSink detectedErrors
+        ) {
+            this.parser = parser;
+            this.header = CsvHeader.of(parser);
+            this.lines = parser.iterator();
+            this.fileName = fileName;
+            this.keyElementNames = keyElementNames;
+            this.keyColumns = CsvUtil.resolveKeyColumns(header, keyElementNames, fileName);
+            this.keyElementNamesSeparator = keyElementNamesSeparator;
+            this.keyComparator = keyComparator;
+            this.detectedErrors = detectedErrors;
+            readNextLine();
+        }
+
+        CsvHeader getHeader() {
+            return header;
+        }
+
+        /**
+         * @return next line with its key or {@code null} if end of file is reached
+         */
+        Map.Entry<CompositeKey, Map<String, String>> next() {
+            while (nextLine != null) {
+                CompositeKey key = nextKey;
+                Map<String, String> row = CsvRow.of(header, nextLine);
+                readNextLine();
+
+                // Lines with the same key follow each other in sorted file
+                while (nextLine != null && keyComparator.compare(key, nextKey) == 0) {
+                    if (row == null) {
+                        key = nextKey;
+                        row = CsvRow.of(header, nextLine);
+                    } else {
+                        CsvUtil.fillDetectedError(
+                                fileName,
+                                keyElementNames,
+                                detectedErrors,
+                                CsvRow.of(header, nextLine)
+                        );
+                        CsvUtil.fillDetectedError(fileName, keyElementNames, detectedErrors, row);
+                        row = null;
+                    }
+                    readNextLine();
+                }
+                if (nextLine != null && keyComparator.compare(key, nextKey) > 0) {
+                    throw new IllegalStateException(String.format(
+                            "File [%s] is not sorted by key: line with key [%s] is found after key [%s]",
+                            fileName,
+                            nextKey,
+                            key
+                    ));
+                }
+                if (row != null) {
+                    return new AbstractMap.SimpleImmutableEntry<>(key, row);
+                }
+            }
+            return null;
+        }
+
+        private void readNextLine() {
+            if (lines.hasNext()) {
+                nextLine = lines.next();
+                nextKey = CsvUtil.buildKey(nextLine, keyColumns, keyElementNamesSeparator);
+            } else {
+                nextLine = null;
+                nextKey = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
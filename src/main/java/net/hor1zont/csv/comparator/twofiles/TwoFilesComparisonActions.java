@@ -1,13 +1,27 @@
 package net.hor1zont.csv.comparator.twofiles;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.OffHeapRowStore;
+import net.hor1zont.csv.comparator.storage.RowSnapshot;
 import net.hor1zont.csv.comparator.twofiles.actions.ComparisonActionExample;
 import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.ExternalCsvSorter;
+import net.hor1zont.csv.comparator.utils.HashPartitioner;
+import net.hor1zont.csv.comparator.utils.ParallelUtil;
+import net.hor1zont.csv.comparator.utils.ProgressReporter;
 
 /**
  * Class-interface to configure comparision rule/actions. To compare 2 files should be created new class which extends
@@ -15,56 +29,348 @@ import net.hor1zont.csv.comparator.utils.CsvUtil;
  */
 public abstract class TwoFilesComparisonActions {
 
-    private Map<String, Map<String, String>> fileA;
-    private Map<String, Map<String, String>> fileB;
+    public static final long DEFAULT_PROGRESS_INTERVAL_SECONDS = 30;
 
-    private CsvUtil csvUtil = new CsvUtil();
+    private Map<CompositeKey, Map<String, String>> fileA;
+    private Map<CompositeKey, Map<String, String>> fileB;
+
+    private final ProgressReporter progressReporter = getProgressIntervalSeconds() > 0
+            ? new ProgressReporter(TimeUnit.SECONDS.toMillis(getProgressIntervalSeconds()))
+            : null;
+    private CsvUtil csvUtil = new CsvUtil(getLoadThreads(), progressReporter);
 
     private String pathFileA = getNameFileA();
     private String pathFileB = getNameFileB();
     private String[] keysFileA = getKeysFileA();
     private String[] keysFileB = getKeysFileB();
+    private String baseFolder;
+    private ComparisonMetrics comparisonMetrics;
+
+    /**
+     * Rules which columns are checked on loading of files, the same rules are used for comparison
+     */
+    private ValuesComparisionRule[] valuesComparisionRules;
 
     /**
-     * Should be called before to init tests before comparision
+     * Should be called before to init tests before comparision. Files are loaded into memory only in
+     * {@link ComparisonMode#IN_MEMORY} and {@link ComparisonMode#HASH_INDEX} modes, in other modes files are read in
+     * {@link #checkFiles()}
      */
     public List<DetectedError> initComparision(String baseFolder) {
         List<DetectedError> detectedErrors = new ArrayList<>();
-        fileA = csvUtil.convertFileToFormattedMap(
+        initComparision(baseFolder, detectedErrors::add);
+        return detectedErrors;
+    }
+
+    /**
+     * The same as {@link #initComparision(String)}, but errors are passed to {@code detectedErrors} as soon as they
+     * are found
+     */
+    public void initComparision(String baseFolder, DetectedErrorSink detectedErrors) {
+        this.baseFolder = baseFolder;
+        this.valuesComparisionRules = getValuesComparisionRules();
+        ComparisonMetrics metrics = getComparisonMetrics();
+        if (getComparisonMode() != ComparisonMode.IN_MEMORY && getComparisonMode() != ComparisonMode.HASH_INDEX) {
+            return;
+        }
+        if (!isConcurrentLoadEnabled()) {
+            fileA = loadFile(ComparisonMetrics.Phase.PARSE_FILE_A, this::loadFileA, detectedErrors, metrics);
+            fileB = loadFile(ComparisonMetrics.Phase.PARSE_FILE_B, this::loadFileB, detectedErrors, metrics);
+            return;
+        }
+
+        // errors of file A are reported before errors of file B, the same as if files are loaded one by one
+        List<DetectedError> detectedErrorsA = new ArrayList<>();
+        List<DetectedError> detectedErrorsB = new ArrayList<>();
+        List<Map<CompositeKey, Map<String, String>>> files = ParallelUtil.runConcurrently(
+                () -> loadFile(ComparisonMetrics.Phase.PARSE_FILE_A, this::loadFileA, detectedErrorsA::add, metrics),
+                () -> loadFile(ComparisonMetrics.Phase.PARSE_FILE_B, this::loadFileB, detectedErrorsB::add, metrics)
+        );
+        fileA = files.get(0);
+        fileB = files.get(1);
+        detectedErrorsA.forEach(detectedErrors::add);
+        detectedErrorsB.forEach(detectedErrors::add);
+    }
+
+    /**
+     * Load file and add time of loading into metrics, every loaded line is counted once (lines with duplicated keys
+     * are not counted)
+     */
+    private Map<CompositeKey, Map<String, String>> loadFile(
+            ComparisonMetrics.Phase phase,
+            Function<DetectedErrorSink, Map<CompositeKey, Map<String, String>>> loader,
+            DetectedErrorSink detectedErrors,
+            ComparisonMetrics metrics
+    ) {
+        long start = System.nanoTime();
+        Map<CompositeKey, Map<String, String>> file = loader.apply(detectedErrors);
+        metrics.addPhase(
+                phase,
+                System.nanoTime() - start,
+                file.size(),
+                fileSize(phase == ComparisonMetrics.Phase.PARSE_FILE_A ? pathFileA : pathFileB)
+        );
+        return file;
+    }
+
+    private long fileSize(String path) {
+        return new File(baseFolder + getTestFolder() + path).length();
+    }
+
+    private Map<CompositeKey, Map<String, String>> loadFileA(DetectedErrorSink detectedErrors) {
+        if (isOffHeapStorageEnabled() && getKeyComparator() == null) {
+            return csvUtil.convertFileToOffHeapStore(
+                    baseFolder + getTestFolder() + pathFileA,
+                    keysFileA,
+                    getKeySeparatorFileA(),
+                    getCharsetFileA(),
+                    detectedErrors,
+                    headerA -> validateColumns(headerA, null),
+                    getTemporaryFolder() == null ? null : Paths.get(getTemporaryFolder())
+            );
+        }
+        if (getComparisonMode() == ComparisonMode.HASH_INDEX && getKeyComparator() == null) {
+            return csvUtil.convertFileToHashIndex(
+                    baseFolder + getTestFolder() + pathFileA,
+                    keysFileA,
+                    getKeySeparatorFileA(),
+                    getCharsetFileA(),
+                    detectedErrors,
+                    headerA -> validateColumns(headerA, null)
+            );
+        }
+        if (getSnapshotFileA() != null && (getKeyComparator() == null || getKeyComparatorId() != null)) {
+            return csvUtil.convertFileToSnapshotMap(
+                    baseFolder + getTestFolder() + pathFileA,
+                    keysFileA,
+                    getKeySeparatorFileA(),
+                    getKeyComparator(),
+                    getKeyComparatorId(),
+                    getCharsetFileA(),
+                    detectedErrors,
+                    headerA -> validateColumns(headerA, null),
+                    Paths.get(getSnapshotFileA())
+            );
+        }
+        return csvUtil.convertFileToFormattedMap(
                 baseFolder + getTestFolder() + pathFileA,
                 keysFileA,
                 getKeySeparatorFileA(),
                 getKeyComparator(),
                 getCharsetFileA(),
-                detectedErrors
+                detectedErrors,
+                headerA -> validateColumns(headerA, null)
         );
-        fileB = csvUtil.convertFileToFormattedMap(
+    }
+
+    private Map<CompositeKey, Map<String, String>> loadFileB(DetectedErrorSink detectedErrors) {
+        if (isOffHeapStorageEnabled() && getKeyComparator() == null) {
+            return csvUtil.convertFileToOffHeapStore(
+                    baseFolder + getTestFolder() + pathFileB,
+                    keysFileB,
+                    getKeySeparatorFileB(),
+                    getCharsetFileB(),
+                    detectedErrors,
+                    headerB -> validateColumns(null, headerB),
+                    getTemporaryFolder() == null ? null : Paths.get(getTemporaryFolder())
+            );
+        }
+        if (getComparisonMode() == ComparisonMode.HASH_INDEX && getKeyComparator() == null) {
+            return csvUtil.convertFileToHashIndex(
+                    baseFolder + getTestFolder() + pathFileB,
+                    keysFileB,
+                    getKeySeparatorFileB(),
+                    getCharsetFileB(),
+                    detectedErrors,
+                    headerB -> validateColumns(null, headerB)
+            );
+        }
+        if (getSnapshotFileB() != null && (getKeyComparator() == null || getKeyComparatorId() != null)) {
+            return csvUtil.convertFileToSnapshotMap(
+                    baseFolder + getTestFolder() + pathFileB,
+                    keysFileB,
+                    getKeySeparatorFileB(),
+                    getKeyComparator(),
+                    getKeyComparatorId(),
+                    getCharsetFileB(),
+                    detectedErrors,
+                    headerB -> validateColumns(null, headerB),
+                    Paths.get(getSnapshotFileB())
+            );
+        }
+        return csvUtil.convertFileToFormattedMap(
                 baseFolder + getTestFolder() + pathFileB,
                 keysFileB,
                 getKeySeparatorFileB(),
                 getKeyComparator(),
                 getCharsetFileB(),
-                detectedErrors
+                detectedErrors,
+                headerB -> validateColumns(null, headerB)
         );
-        return detectedErrors;
+    }
+
+    /**
+     * Release loaded files after comparison: scratch files of off heap storage are removed, snapshots are released.
+     * Progress is not reported any more
+     */
+    public void releaseFiles() {
+        if (progressReporter != null) {
+            progressReporter.close();
+        }
+        closeFile(fileA);
+        closeFile(fileB);
+        fileA = null;
+        fileB = null;
+    }
+
+    private static void closeFile(Map<CompositeKey, Map<String, String>> file) {
+        if (file instanceof Closeable) {
+            try {
+                ((Closeable) file).close();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Fail to release loaded file", ex);
+            }
+        }
+    }
+
+    /**
+     * Check that columns of all comparison rules are present in title line of file before loading of file lines.
+     * Missing column is reported here once, comparator does not report it again.
+     */
+    private void validateColumns(CsvHeader headerA, CsvHeader headerB) {
+        ActionsOnDifference actionsOnDifference = getActionsOnDifference();
+        for (ValuesComparisionRule valuesComparisionRule : valuesComparisionRules) {
+            try {
+                valuesComparisionRule.bind(headerA, headerB);
+            } catch (ColumnNotFoundException ex) {
+                actionsOnDifference.columnIsNotFoundInHeader(ex);
+            }
+        }
     }
 
     /**
      * Compare files
      */
     public List<DetectedError> checkFiles() {
-        FilesComparator filesComparator = getFilesComparator();
-        filesComparator.init(
-                pathFileA,
-                pathFileB,
-                keysFileA,
-                keysFileB,
-                getTestFolder(),
-                fileA,
-                fileB
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        checkFiles(detectedErrors::add);
+        return detectedErrors;
+    }
+
+    /**
+     * The same as {@link #checkFiles()}, but errors are passed to {@code detectedErrors} as soon as they are found
+     */
+    public void checkFiles(DetectedErrorSink detectedErrors) {
+        ComparisonMetrics metrics = getComparisonMetrics();
+        ValuesComparisionRule[] valuesComparisionRules = this.valuesComparisionRules == null
+                ? getValuesComparisionRules()
+                : this.valuesComparisionRules;
+        RuleProfiler ruleProfiler = isRuleProfilingEnabled() ? new RuleProfiler() : null;
+        long start = System.nanoTime();
+        FilesComparator filesComparator = compareFiles(valuesComparisionRules, ruleProfiler, detectedErrors);
+        long comparedRowsCount = filesComparator.getComparedRowsCount();
+        metrics.addPhase(
+                ComparisonMetrics.Phase.COMPARE,
+                System.nanoTime() - start,
+                comparedRowsCount,
+                fileSize(pathFileA) + fileSize(pathFileB)
         );
-        return filesComparator.compare(
-                getValuesComparisionRules()
+        for (ValuesComparisionRule valuesComparisionRule : valuesComparisionRules) {
+            metrics.addRuleEvaluations(valuesComparisionRule, comparedRowsCount);
+        }
+        if (ruleProfiler != null) {
+            for (RuleProfiler.RuleProfile profile : ruleProfiler.getProfiles()) {
+                metrics.addRuleProfile(profile.getRule(), profile.getExtractionNanos(), profile.getValidationNanos());
+            }
+        }
+    }
+
+    /**
+     * Compare files with comparator of configured mode
+     *
+     * @return used comparator
+     */
+    private FilesComparator compareFiles(
+            ValuesComparisionRule[] valuesComparisionRules,
+            RuleProfiler ruleProfiler,
+            DetectedErrorSink detectedErrors
+    ) {
+        FilesComparator filesComparator = getComparatorOfMode();
+        filesComparator.setRuleProfiler(ruleProfiler);
+        if (filesComparator instanceof FileReadingComparator) {
+            ((FileReadingComparator) filesComparator).init(
+                    pathFileA,
+                    pathFileB,
+                    keysFileA,
+                    keysFileB,
+                    getTestFolder(),
+                    baseFolder + getTestFolder() + pathFileA,
+                    baseFolder + getTestFolder() + pathFileB,
+                    getKeySeparatorFileA(),
+                    getKeySeparatorFileB(),
+                    getKeyComparator(),
+                    getCharsetFileA(),
+                    getCharsetFileB()
+            );
+        } else {
+
+            // columns of rules are checked in title lines on loading of files
+            filesComparator.setColumnsChecked(true);
+            filesComparator.init(
+                    pathFileA,
+                    pathFileB,
+                    keysFileA,
+                    keysFileB,
+                    getTestFolder(),
+                    fileA,
+                    fileB
+            );
+        }
+        ProgressReporter.Task task = startCompareTask(filesComparator);
+        try {
+            filesComparator.compare(
+                    valuesComparisionRules,
+                    detectedErrors
+            );
+        } finally {
+            if (task != null) {
+                task.close();
+            }
+        }
+        return filesComparator;
+    }
+
+    private FilesComparator getComparatorOfMode() {
+        if (getComparisonMode() == ComparisonMode.SORTED_STREAMING) {
+            return getSortedFilesComparator();
+        }
+        if (getComparisonMode() == ComparisonMode.EXTERNAL_SORT) {
+            return getExternalSortFilesComparator();
+        }
+        if (getComparisonMode() == ComparisonMode.HASH_PARTITIONED) {
+            return getPartitionedFilesComparator();
+        }
+        if (getComparisonMode() == ComparisonMode.BUILD_PROBE) {
+            return getProbeFilesComparator();
+        }
+        return getFilesComparator();
+    }
+
+    /**
+     * Start to report progress of comparison: count of compared pairs of lines. Count of pairs is expected to be
+     * size of the smaller loaded file, it is unknown if files are not loaded before comparison
+     *
+     * @return task to close at the end of comparison or {@code null} if progress is not reported
+     */
+    private ProgressReporter.Task startCompareTask(FilesComparator filesComparator) {
+        if (progressReporter == null) {
+            return null;
+        }
+        return progressReporter.startTask(
+                "compare",
+                filesComparator::getComparedRowsCount,
+                filesComparator::getComparedRowsCount,
+                fileA == null || fileB == null ? ProgressReporter.UNKNOWN : Math.min(fileA.size(), fileB.size())
         );
     }
 
@@ -76,17 +382,291 @@ public abstract class TwoFilesComparisonActions {
     }
 
     /**
-     * Can be used to set specific comparator to change default logic
+     * Can be used to set specific comparator to change default logic. Files are compared in several threads if
+     * {@link #getComparisonThreads()} is more than 1
      */
     public FilesComparator getFilesComparator() {
+        if (getComparisonThreads() > 1) {
+            return new ParallelFilesComparator(getActionsOnDifference(), getComparisonThreads());
+        }
         return new FilesComparator(getActionsOnDifference());
     }
 
+    /**
+     * Can be used to set specific comparator for {@link ComparisonMode#SORTED_STREAMING} mode
+     */
+    public SortedFilesComparator getSortedFilesComparator() {
+        return new SortedFilesComparator(getActionsOnDifference(), csvUtil);
+    }
+
+    /**
+     * Can be used to set specific comparator for {@link ComparisonMode#EXTERNAL_SORT} mode
+     */
+    public ExternalSortFilesComparator getExternalSortFilesComparator() {
+        ExternalCsvSorter externalCsvSorter = new ExternalCsvSorter(
+                csvUtil,
+                getSortRunSize(),
+                getSortMergeFanIn(),
+                getTemporaryFolder() == null ? null : Paths.get(getTemporaryFolder())
+        );
+        return new ExternalSortFilesComparator(getActionsOnDifference(), csvUtil, externalCsvSorter);
+    }
+
+    /**
+     * Can be used to set specific comparator for {@link ComparisonMode#HASH_PARTITIONED} mode
+     */
+    public PartitionedFilesComparator getPartitionedFilesComparator() {
+        HashPartitioner hashPartitioner = new HashPartitioner(
+                csvUtil,
+                getTemporaryFolder() == null ? null : Paths.get(getTemporaryFolder())
+        );
+        return new PartitionedFilesComparator(
+                getActionsOnDifference(),
+                csvUtil,
+                hashPartitioner,
+                getPartitionsCount(),
+                getComparisonThreads()
+        );
+    }
+
+    /**
+     * Can be used to set specific comparator for {@link ComparisonMode#BUILD_PROBE} mode
+     */
+    public ProbeFilesComparator getProbeFilesComparator() {
+        return new ProbeFilesComparator(getActionsOnDifference(), csvUtil);
+    }
+
+    /**
+     * Wrap report with limits of reported errors, see {@link LimitingErrorSink}. Limits are set with
+     * {@link #getMaxDifferences()}, {@link #getMaxDifferencesPerRule()}, {@link #getMaxDifferencesPerReason()} and
+     * {@link #getDifferencesSampleSize()}
+     *
+     * @param report receiver of errors within limits
+     */
+    public LimitingErrorSink getLimitingErrorSink(DetectedErrorSink report) {
+        return new LimitingErrorSink(
+                report,
+                getMaxDifferences(),
+                getMaxDifferencesPerRule(),
+                getMaxDifferencesPerReason(),
+                getDifferencesSampleSize()
+        );
+    }
+
+    /**
+     * @return count of reported differences to stop comparison, no limit by default
+     */
+    public int getMaxDifferences() {
+        return LimitingErrorSink.NO_LIMIT;
+    }
+
+    /**
+     * @return max count of reported differences of every comparison rule, other differences are only counted. No
+     * limit by default
+     */
+    public int getMaxDifferencesPerRule() {
+        return LimitingErrorSink.NO_LIMIT;
+    }
+
+    /**
+     * @return max count of reported differences with the same reason (e.g. primary key is not found), other
+     * differences are only counted. No limit by default
+     */
+    public int getMaxDifferencesPerReason() {
+        return LimitingErrorSink.NO_LIMIT;
+    }
+
+    /**
+     * @return size of random sample of differences to report instead of all differences, all differences are
+     * reported by default
+     */
+    public int getDifferencesSampleSize() {
+        return LimitingErrorSink.NO_LIMIT;
+    }
+
+    /**
+     * Count differences before they are passed to {@code next} receiver, see {@link DifferenceStatistics}
+     */
+    public DifferenceStatistics getDifferenceStatistics(DetectedErrorSink next) {
+        return new DifferenceStatistics(next, getTopMismatchesCount());
+    }
+
+    /**
+     * @return count of the most frequent pairs of not equal values in statistics
+     */
+    public int getTopMismatchesCount() {
+        return DifferenceStatistics.DEFAULT_TOP_MISMATCHES_COUNT;
+    }
+
+    /**
+     * @return metrics of the current run: time, count of lines and bytes of loading of every file, comparison and
+     * writing of report, see {@link #createComparisonMetrics()}
+     */
+    public synchronized ComparisonMetrics getComparisonMetrics() {
+        if (comparisonMetrics == null) {
+            comparisonMetrics = createComparisonMetrics();
+        }
+        return comparisonMetrics;
+    }
+
+    /**
+     * Can be used to pass metrics into another receiver, metrics are kept in memory by default
+     */
+    public ComparisonMetrics createComparisonMetrics() {
+        return new RunMetrics();
+    }
+
+    /**
+     * @return interval in seconds between logs of progress of loading of files and comparison, progress is not
+     * reported if it is 0. Reporting thread is started only with the first loaded file or comparison
+     */
+    public long getProgressIntervalSeconds() {
+        return DEFAULT_PROGRESS_INTERVAL_SECONDS;
+    }
+
+    /**
+     * @return reporter of progress of run (e.g. to add count of found differences into progress) or {@code null} if
+     * progress is not reported
+     */
+    public ProgressReporter getProgressReporter() {
+        return progressReporter;
+    }
+
+    /**
+     * @return {@code true} if time of extraction of values and time of validation are measured for every comparison
+     * rule to find slow custom extractors and validators, see {@link RuleProfiler}. The most expensive rules are
+     * reported in metrics of run
+     */
+    public boolean isRuleProfilingEnabled() {
+        return false;
+    }
+
+    /**
+     * @return name of json file with metrics of run (e.g. name of report file with {@code .metrics.json} suffix to
+     * write it next to report file), metrics are only logged if no name is set
+     */
+    public String getMetricsReportFilename() {
+        return null;
+    }
+
+    /**
+     * @return {@code false} if only statistics of differences are needed without report file with every difference
+     */
+    public boolean isDetailedReportEnabled() {
+        return true;
+    }
+
+    /**
+     * @return name of csv file with statistics of differences, statistics are only logged if no name is set
+     */
+    public String getStatisticsReportFilename() {
+        return null;
+    }
+
+    /**
+     * @return way to read and compare files, {@link ComparisonMode#IN_MEMORY} is used by default. Duplications
+     * of keys are found only during comparison in other modes (not in {@link #initComparision(String)})
+     */
+    public ComparisonMode getComparisonMode() {
+        return ComparisonMode.IN_MEMORY;
+    }
+
+    /**
+     * @return max count of lines which are sorted in memory at once in {@link ComparisonMode#EXTERNAL_SORT} mode
+     */
+    public int getSortRunSize() {
+        return ExternalCsvSorter.DEFAULT_RUN_SIZE;
+    }
+
+    /**
+     * @return max count of sorted temporary files which are merged at once in {@link ComparisonMode#EXTERNAL_SORT}
+     * mode
+     */
+    public int getSortMergeFanIn() {
+        return ExternalCsvSorter.DEFAULT_MERGE_FAN_IN;
+    }
+
+    /**
+     * @return count of partitions for {@link ComparisonMode#HASH_PARTITIONED} mode. By default
+     * {@link PartitionedFilesComparator#AUTO_PARTITIONS_COUNT} is used: count is calculated from files size and
+     * available memory
+     */
+    public int getPartitionsCount() {
+        return PartitionedFilesComparator.AUTO_PARTITIONS_COUNT;
+    }
+
+    /**
+     * @return count of threads to compare files, comparison rules and actions on difference should be thread safe
+     * if it is more than 1
+     */
+    public int getComparisonThreads() {
+        return 1;
+    }
+
+    /**
+     * @return {@code true} if file A and file B are loaded at once in separate threads in
+     * {@link ComparisonMode#IN_MEMORY} and {@link ComparisonMode#HASH_INDEX} modes. Comparison rules, key comparator
+     * and actions on difference are used from both threads, so they should be thread safe in this case. Errors of
+     * loading are reported in the same order as in sequential loading
+     */
+    public boolean isConcurrentLoadEnabled() {
+        return false;
+    }
+
+    /**
+     * @return {@code true} if lines of files are stored out of Java heap in {@link ComparisonMode#IN_MEMORY} and
+     * {@link ComparisonMode#HASH_INDEX} modes (scratch file in {@link #getTemporaryFolder()} is used), see
+     * {@link OffHeapRowStore}. Lines are compared in order of lines in files like in
+     * {@link ComparisonMode#HASH_INDEX} mode. Key comparator cannot be used with off heap storage
+     */
+    public boolean isOffHeapStorageEnabled() {
+        return false;
+    }
+
+    /**
+     * @return count of threads to parse one file in {@link ComparisonMode#IN_MEMORY} and
+     * {@link ComparisonMode#HASH_INDEX} modes, see {@link net.hor1zont.csv.comparator.utils.MappedCsvLoader}
+     */
+    public int getLoadThreads() {
+        return 1;
+    }
+
+    /**
+     * @return folder for temporary files, default temporary folder is used is no folder is set
+     */
+    public String getTemporaryFolder() {
+        return null;
+    }
+
+    /**
+     * @return full path to snapshot of file A, see {@link RowSnapshot}: loaded lines are saved into it and the next
+     * comparison of the same file opens snapshot instead of parsing of file. It is used only if lines are stored in
+     * Java heap in order of keys ({@link ComparisonMode#IN_MEMORY} mode without off heap storage). No snapshot is
+     * used if it is {@code null} or if key comparator is set without {@link #getKeyComparatorId()}
+     */
+    public String getSnapshotFileA() {
+        return null;
+    }
+
+    /**
+     * @return full path to snapshot of file B, see {@link #getSnapshotFileA()}
+     */
+    public String getSnapshotFileB() {
+        return null;
+    }
 
     public Comparator<String> getKeyComparator() {
         return null;
     }
 
+    /**
+     * @return id of {@link #getKeyComparator()} to check that snapshot of file is made with the same order of keys,
+     * see {@link RowSnapshot}. It should be changed if order of keys is changed
+     */
+    public String getKeyComparatorId() {
+        return null;
+    }
+
     /**
      * @return charset to read file A, {@link CsvUtil#DEFAULT_FILE_CHARSET} is used is no charset is set
      */
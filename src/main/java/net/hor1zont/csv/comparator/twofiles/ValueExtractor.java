@@ -1,5 +1,7 @@
 package net.hor1zont.csv.comparator.twofiles;
 
+import net.hor1zont.csv.comparator.storage.CsvRow;
+
 import java.util.Arrays;
 import java.util.Map;
 import java.util.StringJoiner;
@@ -24,6 +26,10 @@ public class ValueExtractor {
         separator = " ";
     }
 
+    String getSeparator() {
+        return separator;
+    }
+
     /**
      * Can be overridden to change logic how to get target value from several columns.
      * Default logic is extracting values from {@code row} (one line) one by one with
@@ -51,4 +57,33 @@ public class ValueExtractor {
         }
         return stringJoiner.toString();
     }
+
+    /**
+     * Extract values from {@code row} by column indexes (resolved once with {@link CsvRow#getHeader()}) instead of
+     * search of every column by name. Result is the same as in {@link #extractValue(Map, String...)} with default
+     * logic.
+     *
+     * @param row line with data to extract
+     * @param columnIndexes indexes of columns to extract values from line
+     * @return String with extracted data from all columns separated by separator
+     */
+    public String extractValue(
+            CsvRow row,
+            int... columnIndexes
+    ) throws ColumnNotFoundException {
+        StringJoiner stringJoiner = new StringJoiner(separator);
+        for (int columnIndex : columnIndexes) {
+            String value = row.get(columnIndex);
+            if (value == null) {
+                throw new ColumnNotFoundException(String.format("In row %s, column with index [%s] is not found. "
+                                + "All indexes list: %s",
+                        row,
+                        columnIndex,
+                        Arrays.toString(columnIndexes)
+                ));
+            }
+            stringJoiner.add(value);
+        }
+        return stringJoiner.toString();
+    }
 }
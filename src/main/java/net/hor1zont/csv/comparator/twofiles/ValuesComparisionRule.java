@@ -1,5 +1,7 @@
 package net.hor1zont.csv.comparator.twofiles;
 
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+
 import java.util.Map;
 
 /**
@@ -51,6 +53,11 @@ public class ValuesComparisionRule {
         this(new String[]{keyA}, new String[]{keyB});
     }
 
+    /**
+     * Store lines to extract values with {@link #extractValueA()} and {@link #extractValueB()}. Kept for backward
+     * compatibility: rule is changed on every call, so it cannot be used from several threads, use
+     * {@link #evaluate(Map, Map)} instead.
+     */
     void init(Map<String, String> rowA, Map<String, String> rowB) {
         this.rowA = rowA;
         this.rowB = rowB;
@@ -89,6 +96,18 @@ public class ValuesComparisionRule {
         return this;
     }
 
+    TwoValuesValidator getValidator() {
+        return validator;
+    }
+
+    ValueExtractor getValueExtractorA() {
+        return valueExtractorA;
+    }
+
+    ValueExtractor getValueExtractorB() {
+        return valueExtractorB;
+    }
+
     public String[] getKeysA() {
         return keysA;
     }
@@ -97,11 +116,77 @@ public class ValuesComparisionRule {
         return keysB;
     }
 
+    /**
+     * Resolve column names of the rule into column indexes for title lines of compared files. Should be called once
+     * for every pair of files, result can be used to compare all lines of these files.
+     *
+     * @param headerA title line of file A or {@code null} if it is unknown
+     * @param headerB title line of file B or {@code null} if it is unknown
+     * @return rule with resolved columns
+     * @throws ColumnNotFoundException if column of the rule is not found in title line
+     */
+    public BoundComparisionRule bind(
+            CsvHeader headerA,
+            CsvHeader headerB
+    ) throws ColumnNotFoundException {
+        return new BoundComparisionRule(
+                this,
+                headerA,
+                headerB,
+                BoundComparisionRule.resolveColumns(valueExtractorA, keysA, headerA),
+                BoundComparisionRule.resolveColumns(valueExtractorB, keysB, headerB)
+        );
+    }
+
+    /**
+     * @return rule without resolved columns: values are extracted by column names
+     */
+    BoundComparisionRule unbound() {
+        return new BoundComparisionRule(this, null, null, null, null);
+    }
+
+    /**
+     * Compare 2 lines: extract values from both lines and compare them with validator. Rule is not changed, so
+     * method can be used from several threads at once (if validator and extractors do not keep any state).
+     *
+     * @param rowA line of file A
+     * @param rowB line of file B
+     * @return extracted values and result of their comparison
+     */
+    public ComparisonResult evaluate(
+            Map<String, String> rowA,
+            Map<String, String> rowB
+    ) throws ColumnNotFoundException {
+        String valueA = extractValueA(rowA);
+        String valueB = extractValueB(rowB);
+        return new ComparisonResult(valueA, valueB, compareValues(valueA, valueB));
+    }
+
+    /**
+     * @return value from line set in {@link #init(Map, Map)}
+     */
     public String extractValueA() throws ColumnNotFoundException {
         return valueExtractorA.extractValue(rowA, keysA);
     }
 
+    /**
+     * @return value from line set in {@link #init(Map, Map)}
+     */
     public String extractValueB() throws ColumnNotFoundException {
         return valueExtractorB.extractValue(rowB, keysB);
     }
+
+    /**
+     * Extract value from line of file A without change of the rule, can be used from several threads at once
+     */
+    public String extractValueA(Map<String, String> rowA) throws ColumnNotFoundException {
+        return valueExtractorA.extractValue(rowA, keysA);
+    }
+
+    /**
+     * Extract value from line of file B without change of the rule, can be used from several threads at once
+     */
+    public String extractValueB(Map<String, String> rowB) throws ColumnNotFoundException {
+        return valueExtractorB.extractValue(rowB, keysB);
+    }
 }
@@ -143,6 +143,12 @@ public class ComparisonActionExample extends TwoFilesComparisonActions {
         return String::compareTo;
     }
 
+    // Id of key comparator to reuse snapshots of files (see getSnapshotFileA), change it if comparator is changed
+    @Override
+    public String getKeyComparatorId() {
+        return "string-compare-to";
+    }
+
     // Way how to change charsets for report file if default is not correct
     @Override
     public Charset getReportFileCharset() {
@@ -0,0 +1,52 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader which counts read chars, so count can be checked from another thread (e.g. to report progress). Should be
+ * used by one reading thread
+ */
+class CountingReader extends FilterReader {
+
+    private volatile long count;
+
+    CountingReader(Reader source) {
+        super(source);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int symbol = super.read();
+        if (symbol >= 0) {
+            count++;
+        }
+        return symbol;
+    }
+
+    @Override
+    public int read(@NotNull char[] chars, int offset, int length) throws IOException {
+        int read = super.read(chars, offset, length);
+        if (read > 0) {
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long length) throws IOException {
+        long skipped = super.skip(length);
+        count += skipped;
+        return skipped;
+    }
+
+    /**
+     * @return count of read chars
+     */
+    long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,206 @@
+package net.hor1zont.csv.comparator.utils;
+
+import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import net.hor1zont.csv.comparator.twofiles.DetectedErrorSink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Report which writes detected errors into csv file one by one as soon as they are found (the same format as
+ * {@link CsvUtil#writeDetectedErrorsToCsvFile}). Errors are not kept in memory: lines are appended into one reused
+ * buffer which is written into file by large blocks, and count of errors is kept for summary. Report file is created
+ * with the first error, so no file is created if files are equal. Report is compressed with gzip if file name ends
+ * with {@link CsvUtil#GZIP_EXTENSION}. Report fails if value cannot be written in charset of report (the same as
+ * {@link CsvUtil#writeDetectedErrorsToCsvFile}), so values are never replaced. Not thread safe, see
+ * {@link net.hor1zont.csv.comparator.twofiles.AsyncErrorSink} to write report in separate thread.
+ */
+public class CsvReportWriter implements DetectedErrorSink, Closeable {
+
+    private static final Logger LOG = LogManager.getLogger(CsvReportWriter.class);
+
+    /**
+     * Size of block of lines which is written into file at once in chars
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final String fileName;
+    private final Charset fileCharset;
+    private final boolean logErrors;
+
+    private WritableByteChannel channel;
+    private CharsetEncoder encoder;
+    private ByteBuffer encodedLines;
+    private final StringBuilder lines = new StringBuilder(BUFFER_SIZE);
+    private long errorsCount;
+    private long writtenBytes;
+    private long writeTimeNanos;
+    private final Map<String, Long> errorsCountByReason = new LinkedHashMap<>();
+
+    /**
+     * @param fileName full path to report file
+     * @param fileCharset report file charset (default is {@link CsvUtil#DEFAULT_FILE_CHARSET})
+     * @param logErrors every error is logged too if it is {@code true}
+     */
+    public CsvReportWriter(@NotNull String fileName, @Nullable Charset fileCharset, boolean logErrors) {
+        this.fileName = fileName;
+        this.fileCharset = fileCharset == null ? CsvUtil.DEFAULT_FILE_CHARSET : fileCharset;
+        this.logErrors = logErrors;
+    }
+
+    @Override
+    public void add(DetectedError detectedError) {
+        long start = System.nanoTime();
+        errorsCount++;
+        errorsCountByReason.merge(detectedError.getReason(), 1L, Long::sum);
+        if (logErrors) {
+            LOG.info(errorsCount + ": " + detectedError);
+        }
+        try {
+            if (channel == null) {
+                openReportFile();
+            }
+            lines.append(errorsCount).append(',');
+            detectedError.appendCSVString(lines);
+            lines.append(LINE_SEPARATOR);
+            if (lines.length() >= BUFFER_SIZE) {
+                writeLines(false);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Fail to write report into file [%s]", fileName), ex);
+        }
+        writeTimeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * @return count of all written errors
+     */
+    public long getErrorsCount() {
+        return errorsCount;
+    }
+
+    /**
+     * @return count of written errors for every reason in order of first occurrence
+     */
+    public Map<String, Long> getErrorsCountByReason() {
+        return Collections.unmodifiableMap(errorsCountByReason);
+    }
+
+    /**
+     * @return count of bytes written into report file (before compression)
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * @return time spent in writing of errors and closing of report file
+     */
+    public long getWriteTimeNanos() {
+        return writeTimeNanos;
+    }
+
+    /**
+     * Write rest of buffered lines into file and log summary of written errors
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            writeLines(true);
+            channel.close();
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Fail to write report into file [%s]", fileName), ex);
+        } finally {
+            closeQuietly(channel);
+            channel = null;
+            writeTimeNanos += System.nanoTime() - start;
+        }
+        LOG.warn(String.format("%s differences were found, see report file [%s]:", errorsCount, fileName));
+        errorsCountByReason.forEach((reason, count) -> LOG.warn(String.format("%s: %s", reason, count)));
+    }
+
+    private void openReportFile() throws IOException {
+        Path pathToFile = Paths.get(fileName);
+        if (fileName.endsWith(CsvUtil.GZIP_EXTENSION)) {
+            channel = Channels.newChannel(CsvUtil.openReportStream(pathToFile));
+        } else {
+            channel = FileChannel.open(
+                    pathToFile,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE
+            );
+        }
+        encoder = fileCharset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        encodedLines = ByteBuffer.allocateDirect((int) (BUFFER_SIZE * encoder.averageBytesPerChar()) + 1024);
+        lines.append("#,").append(DetectedError.getCSVTitle()).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Encode buffered lines and write them into file
+     *
+     * @param endOfReport {@code true} if there are no more lines
+     */
+    private void writeLines(boolean endOfReport) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(lines);
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, encodedLines, endOfReport);
+            if (result.isError()) {
+                result.throwException();
+            }
+            writeEncodedLines();
+        } while (result.isOverflow());
+        if (endOfReport) {
+            while (encoder.flush(encodedLines).isOverflow()) {
+                writeEncodedLines();
+            }
+            writeEncodedLines();
+        }
+        lines.setLength(0);
+    }
+
+    private void writeEncodedLines() throws IOException {
+        encodedLines.flip();
+        writtenBytes += encodedLines.remaining();
+        while (encodedLines.hasRemaining()) {
+            channel.write(encodedLines);
+        }
+        encodedLines.clear();
+    }
+
+    private static void closeQuietly(WritableByteChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // report is already failed
+        }
+    }
+}
@@ -1,13 +1,28 @@
 package net.hor1zont.csv.comparator.utils;
 
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import net.hor1zont.csv.comparator.storage.HashIndex;
+import net.hor1zont.csv.comparator.storage.OffHeapRowStore;
+import net.hor1zont.csv.comparator.storage.RowSnapshot;
 import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import net.hor1zont.csv.comparator.twofiles.DetectedErrorSink;
 import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -20,13 +35,57 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
 import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class CsvUtil {
 
     public static final Charset DEFAULT_FILE_CHARSET = StandardCharsets.ISO_8859_1;
 
+    /**
+     * Charset for temporary files - any value from source file can be stored
+     */
+    public static final Charset TEMPORARY_FILE_CHARSET = StandardCharsets.UTF_8;
+
+    /**
+     * Extension of report file name to write compressed report
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Usual ratio of size of csv file to size of its gzip
+     */
+    private static final int COMPRESSION_RATIO_ESTIMATE = 5;
+
+    private final int loadThreads;
+    private final ProgressReporter progressReporter;
+
+    public CsvUtil() {
+        this(1);
+    }
+
+    /**
+     * @param loadThreads count of threads to parse one file, if it is more than 1 then not compressed files are read
+     * with {@link MappedCsvLoader} (if charset of file allows it)
+     */
+    public CsvUtil(int loadThreads) {
+        this(loadThreads, null);
+    }
+
+    /**
+     * @param loadThreads count of threads to parse one file, see {@link #CsvUtil(int)}
+     * @param progressReporter receiver of progress of loading of files into memory, can be {@code null}
+     */
+    public CsvUtil(int loadThreads, @Nullable ProgressReporter progressReporter) {
+        this.loadThreads = loadThreads;
+        this.progressReporter = progressReporter;
+    }
+
     /**
      * Read CVS file and convert it into Map representation with keys for every row - values in {@code keyElementNames}
      * columns. If there is more the one value in {@code keyElementNames} then multivalued key will be used separated
@@ -36,12 +95,36 @@ public class CsvUtil {
      * @param fileName full path to target file for reading
      * @param keyElementNames column names which values should be used in every row for Map's key
      * @param keyElementNamesSeparator separator/delimiter which used only for multi valued keyElementNames
-     * @param keyComparator comparator for Map to specify rules if necessary how to compare objects in the Map
+     * @param keyComparator comparator for Map to specify rules if necessary how to compare objects in the Map, it is
+     * applied to key values joined with {@code keyElementNamesSeparator}
      * @param fileCharset file charset to read file correctly (default is {@link CsvUtil#DEFAULT_FILE_CHARSET})
      * @param detectedErrors object to record not critical error for next analyze
      * @return Map representation of target file
      */
-    public Map<String, Map<String, String>> convertFileToFormattedMap(
+    public Map<CompositeKey, Map<String, String>> convertFileToFormattedMap(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable Charset fileCharset,
+            @NotNull DetectedErrorSink detectedErrors
+    ) {
+        return convertFileToFormattedMap(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                keyComparator,
+                fileCharset,
+                detectedErrors,
+                null
+        );
+    }
+
+    /**
+     * The same as {@link #convertFileToFormattedMap(String, String[], String, Comparator, Charset, DetectedErrorSink)},
+     * but errors are collected into list
+     */
+    public Map<CompositeKey, Map<String, String>> convertFileToFormattedMap(
             @NotNull String fileName,
             @NotNull String[] keyElementNames,
             @NotNull String keyElementNamesSeparator,
@@ -49,28 +132,303 @@ public class CsvUtil {
             @Nullable Charset fileCharset,
             @NotNull List<DetectedError> detectedErrors
     ) {
-        Path pathToFile = Paths.get(fileName);
-        Map<String, Map<String, String>> fileMapRepresentation;
+        return convertFileToFormattedMap(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                keyComparator,
+                fileCharset,
+                detectedErrors::add
+        );
+    }
+
+    /**
+     * The same as {@link #convertFileToFormattedMap(String, String[], String, Comparator, Charset, DetectedErrorSink)}, but
+     * {@code headerValidator} is called with title line of file before reading of other lines, so mistakes in
+     * column names can be found before loading of the whole file.
+     *
+     * @param headerValidator check of title line, it should throw exception if file cannot be used
+     */
+    public Map<CompositeKey, Map<String, String>> convertFileToFormattedMap(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable Charset fileCharset,
+            @NotNull DetectedErrorSink detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator
+    ) {
+        Map<CompositeKey, Map<String, String>> fileMapRepresentation;
         if (keyComparator == null) {
             fileMapRepresentation = new TreeMap<>();
         } else {
-            fileMapRepresentation = new TreeMap<>(keyComparator);
+            fileMapRepresentation = new TreeMap<>(CompositeKey.comparator(keyComparator));
+        }
+        readFileIntoMap(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                fileCharset,
+                fileMapRepresentation,
+                detectedErrors,
+                headerValidator
+        );
+        return fileMapRepresentation;
+    }
+
+    /**
+     * The same as {@link #convertFileToFormattedMap(String, String[], String, Comparator, Charset, DetectedErrorSink,
+     * Consumer)}, but errors are collected into list
+     */
+    public Map<CompositeKey, Map<String, String>> convertFileToFormattedMap(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable Charset fileCharset,
+            @NotNull List<DetectedError> detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator
+    ) {
+        return convertFileToFormattedMap(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                keyComparator,
+                fileCharset,
+                detectedErrors::add,
+                headerValidator
+        );
+    }
+
+    /**
+     * The same as {@link #convertFileToFormattedMap(String, String[], String, Comparator, Charset, DetectedErrorSink, Consumer)},
+     * but lines are stored in {@link HashIndex}: line is found by key without keys comparison, lines are iterated in
+     * order of lines in file (not in order of keys).
+     */
+    public Map<CompositeKey, Map<String, String>> convertFileToHashIndex(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Charset fileCharset,
+            @NotNull DetectedErrorSink detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator
+    ) {
+        Map<CompositeKey, Map<String, String>> fileMapRepresentation = new HashIndex<>();
+        readFileIntoMap(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                fileCharset,
+                fileMapRepresentation,
+                detectedErrors,
+                headerValidator
+        );
+        return fileMapRepresentation;
+    }
+
+    /**
+     * The same as {@link #convertFileToHashIndex(String, String[], String, Charset, DetectedErrorSink, Consumer)},
+     * but errors are collected into list
+     */
+    public Map<CompositeKey, Map<String, String>> convertFileToHashIndex(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Charset fileCharset,
+            @NotNull List<DetectedError> detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator
+    ) {
+        return convertFileToHashIndex(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                fileCharset,
+                detectedErrors::add,
+                headerValidator
+        );
+    }
+
+    /**
+     * The same as {@link #convertFileToHashIndex}, but lines are stored out of Java heap in {@link OffHeapRowStore}
+     * (values are decoded only when they are requested). Returned store should be closed after comparison to remove
+     * its scratch file.
+     *
+     * @param temporaryFolder folder for scratch file, default temporary folder is used if it is {@code null}
+     */
+    public OffHeapRowStore convertFileToOffHeapStore(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Charset fileCharset,
+            @NotNull DetectedErrorSink detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator,
+            @Nullable Path temporaryFolder
+    ) {
+        OffHeapRowStore fileMapRepresentation;
+        try {
+            fileMapRepresentation = new OffHeapRowStore(
+                    keyElementNamesSeparator,
+                    createTemporaryFile(temporaryFolder, "off-heap-lines-")
+            );
+        } catch (IOException ex) {
+            throw new IllegalStateException("Fail to create scratch file for lines of file " + fileName, ex);
         }
         try {
-            Reader inputStream = getFileInputStream(pathToFile, fileCharset);
-            Iterable<CSVRecord> lines = CSVFormat.EXCEL.withFirstRecordAsHeader().parse(inputStream);
-            for (CSVRecord line : lines) {
-                StringJoiner keyForLine = new StringJoiner(keyElementNamesSeparator);
-                for (String key : keyElementNames) {
-                    keyForLine.add(line.get(key));
+            readFileIntoMap(
+                    fileName,
+                    keyElementNames,
+                    keyElementNamesSeparator,
+                    fileCharset,
+                    fileMapRepresentation,
+                    detectedErrors,
+                    headerValidator
+            );
+        } catch (RuntimeException ex) {
+            closeQuietly(fileMapRepresentation);
+            throw ex;
+        }
+        return fileMapRepresentation;
+    }
+
+    /**
+     * The same as {@link #convertFileToFormattedMap(String, String[], String, Comparator, Charset, DetectedErrorSink, Consumer)},
+     * but loaded lines are saved into {@code snapshotFile} and the next call opens saved {@link RowSnapshot} instead
+     * of parsing of file (if file, charset, key columns, key separator and {@code keyComparator} are not changed).
+     * Snapshot is saved only if no errors were found in file, because errors of file are not kept in snapshot.
+     * Returned snapshot should be closed after comparison.
+     *
+     * @param keyComparatorId id of {@code keyComparator} to check that snapshot is made with the same order of keys,
+     * it is required if {@code keyComparator} is set
+     * @param snapshotFile file of snapshot, it is created if it does not exist or it cannot be used
+     */
+    public Map<CompositeKey, Map<String, String>> convertFileToSnapshotMap(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable String keyComparatorId,
+            @Nullable Charset fileCharset,
+            @NotNull DetectedErrorSink detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator,
+            @NotNull Path snapshotFile
+    ) {
+        Path pathToFile = Paths.get(fileName);
+        Charset snapshotCharset = fileCharset == null ? DEFAULT_FILE_CHARSET : fileCharset;
+        try {
+            RowSnapshot snapshot = RowSnapshot.open(
+                    snapshotFile,
+                    pathToFile,
+                    keyElementNames,
+                    keyElementNamesSeparator,
+                    keyComparator,
+                    keyComparatorId,
+                    snapshotCharset
+            );
+            if (snapshot != null) {
+                if (headerValidator != null && snapshot.getHeader() != null) {
+                    headerValidator.accept(snapshot.getHeader());
                 }
-                Map<String, String> previousRaw = fileMapRepresentation.put(keyForLine.toString(), line.toMap());
+                return snapshot;
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Fail to read snapshot [%s]", snapshotFile), ex);
+        }
+        boolean[] errorsFound = new boolean[1];
+        Map<CompositeKey, Map<String, String>> fileMapRepresentation = convertFileToFormattedMap(
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                keyComparator,
+                fileCharset,
+                new DetectedErrorSink() {
+
+                    @Override
+                    public void add(DetectedError detectedError) {
+                        errorsFound[0] = true;
+                        detectedErrors.add(detectedError);
+                    }
 
-                // Ignore duplications and store info to display in report
-                if (previousRaw != null) {
-                    fillDetectedError(fileName, keyElementNames, detectedErrors, line.toMap());
-                    fillDetectedError(fileName, keyElementNames, detectedErrors, previousRaw);
-                    fileMapRepresentation.remove(keyForLine.toString());
+                    @Override
+                    public boolean isComplete() {
+                        return detectedErrors.isComplete();
+                    }
+                },
+                headerValidator
+        );
+        if (!errorsFound[0]) {
+            try {
+                RowSnapshot.write(
+                        snapshotFile,
+                        pathToFile,
+                        keyElementNames,
+                        keyElementNamesSeparator,
+                        keyComparator,
+                        keyComparatorId,
+                        snapshotCharset,
+                        fileMapRepresentation
+                );
+            } catch (IOException ex) {
+                throw new IllegalStateException(String.format("Fail to write snapshot [%s]", snapshotFile), ex);
+            }
+        }
+        return fileMapRepresentation;
+    }
+
+    private static void closeQuietly(OffHeapRowStore store) {
+        try {
+            store.close();
+        } catch (IOException ignored) {
+            // loading is already failed
+        }
+    }
+
+    private void readFileIntoMap(
+            String fileName,
+            String[] keyElementNames,
+            String keyElementNamesSeparator,
+            Charset fileCharset,
+            Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            DetectedErrorSink detectedErrors,
+            Consumer<CsvHeader> headerValidator
+    ) {
+        Path pathToFile = Paths.get(fileName);
+        try {
+            if (loadThreads > 1 && MappedCsvLoader.isSupported(pathToFile, fileCharset)) {
+                ProgressReporter.Task task = startLoadTask(fileName, fileMapRepresentation, null);
+                try {
+                    MappedCsvLoader.load(
+                            pathToFile,
+                            fileCharset == null ? DEFAULT_FILE_CHARSET : fileCharset,
+                            fileName,
+                            keyElementNames,
+                            keyElementNamesSeparator,
+                            fileMapRepresentation,
+                            detectedErrors,
+                            headerValidator,
+                            loadThreads
+                    );
+                } finally {
+                    if (task != null) {
+                        task.close();
+                    }
+                }
+                return;
+            }
+            CountingReader reader = new CountingReader(getFileInputStream(pathToFile, fileCharset));
+            ProgressReporter.Task task = startLoadTask(fileName, fileMapRepresentation, reader);
+            try (CSVParser lines = CSVFormat.EXCEL.withFirstRecordAsHeader().parse(reader)) {
+                convertLinesToFormattedMap(
+                        lines,
+                        fileName,
+                        keyElementNames,
+                        keyElementNamesSeparator,
+                        fileMapRepresentation,
+                        detectedErrors,
+                        headerValidator
+                );
+            } finally {
+                if (task != null) {
+                    task.close();
                 }
             }
         } catch (NoSuchFileException e) {
@@ -80,12 +438,253 @@ public class CsvUtil {
                     pathToFile, e.getMessage()), e
             );
         }
+    }
 
-        return fileMapRepresentation;
+    /**
+     * Start to report progress of loading of file: count of lines is size of filled Map, part of file is estimated by
+     * count of read chars
+     *
+     * @param reader reader of file or {@code null} if part of read file is unknown
+     * @return task to close at the end of loading or {@code null} if progress is not reported
+     */
+    private ProgressReporter.Task startLoadTask(
+            String fileName,
+            Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            CountingReader reader
+    ) {
+        if (progressReporter == null) {
+            return null;
+        }
+        if (reader == null) {
+            return progressReporter.startTask(
+                    "load " + fileName,
+                    fileMapRepresentation::size,
+                    fileMapRepresentation::size,
+                    ProgressReporter.UNKNOWN
+            );
+        }
+        return progressReporter.startTask(
+                "load " + fileName,
+                fileMapRepresentation::size,
+                reader::getCount,
+                estimateDataSize(fileName)
+        );
+    }
+
+    /**
+     * Put lines of CVS file into Map representation, see {@link #convertFileToFormattedMap} for details. Every line is
+     * stored as {@link CsvRow}: column names are shared by all lines.
+     *
+     * @param lines parser to read lines of file
+     * @param fileName name of file to display in report
+     * @param keyElementNames column names which values should be used in every row for Map's key
+     * @param keyElementNamesSeparator separator/delimiter which used only for multi valued keyElementNames
+     * @param fileMapRepresentation Map to fill
+     * @param detectedErrors object to record not critical error for next analyze
+     * @param headerValidator check of title line before reading of other lines, can be {@code null}
+     */
+    public static void convertLinesToFormattedMap(
+            @NotNull CSVParser lines,
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @NotNull Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            @NotNull DetectedErrorSink detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator
+    ) {
+        CsvHeader header = CsvHeader.of(lines);
+        int[] keyColumns = resolveKeyColumns(header, keyElementNames, fileName);
+        if (headerValidator != null) {
+            headerValidator.accept(header);
+        }
+        for (CSVRecord line : lines) {
+            putLine(
+                    fileMapRepresentation,
+                    buildKey(line, keyColumns, keyElementNamesSeparator),
+                    CsvRow.of(header, line),
+                    fileName,
+                    keyElementNames,
+                    detectedErrors
+            );
+        }
+    }
+
+    /**
+     * The same as {@link #convertLinesToFormattedMap(CSVParser, String, String[], String, Map, DetectedErrorSink,
+     * Consumer)}, but errors are collected into list
+     */
+    public static void convertLinesToFormattedMap(
+            @NotNull CSVParser lines,
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @NotNull Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            @NotNull List<DetectedError> detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator
+    ) {
+        convertLinesToFormattedMap(
+                lines,
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                fileMapRepresentation,
+                detectedErrors::add,
+                headerValidator
+        );
+    }
+
+    /**
+     * Put one line into Map representation, both lines are removed and reported if key is duplicated
+     */
+    static void putLine(
+            Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            CompositeKey keyForLine,
+            CsvRow row,
+            String fileName,
+            String[] keyElementNames,
+            DetectedErrorSink detectedErrors
+    ) {
+        Map<String, String> previousRaw = fileMapRepresentation.put(keyForLine, row);
+
+        // Ignore duplications and store info to display in report
+        if (previousRaw != null) {
+            fillDetectedError(fileName, keyElementNames, detectedErrors, row);
+            fillDetectedError(fileName, keyElementNames, detectedErrors, previousRaw);
+            fileMapRepresentation.remove(keyForLine);
+        }
+    }
+
+    /**
+     * Open CVS file to read it line by line, first line is used as a title line. Returned parser should be closed
+     * after reading.
+     *
+     * @param fileName full path to target file for reading
+     * @param fileCharset file charset to read file correctly (default is {@link CsvUtil#DEFAULT_FILE_CHARSET})
+     * @return parser to iterate over file lines
+     */
+    public CSVParser openCsvFile(
+            @NotNull String fileName,
+            @Nullable Charset fileCharset
+    ) {
+        Path pathToFile = Paths.get(fileName);
+        try {
+            return CSVFormat.EXCEL.withFirstRecordAsHeader().parse(getFileInputStream(pathToFile, fileCharset));
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException(String.format("File [%s] is not found", pathToFile));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Error with reading file [%s]. Error details: %s",
+                    pathToFile, e.getMessage()), e
+            );
+        }
+    }
+
+    /**
+     * Build key for Map representation of the line: values in {@code keyElementNames} columns,
+     * {@code keyElementNamesSeparator} is used only to display the key
+     */
+    public static CompositeKey buildKey(
+            @NotNull CSVRecord line,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator
+    ) {
+        String[] keyValues = new String[keyElementNames.length];
+        for (int i = 0; i < keyElementNames.length; i++) {
+            keyValues[i] = line.get(keyElementNames[i]);
+        }
+        return new CompositeKey(keyValues, keyElementNamesSeparator);
+    }
+
+    /**
+     * Resolve key columns once for title line of file
+     *
+     * @param header title line of file
+     * @param keyElementNames column names which values should be used as a key
+     * @param fileName name of file to display in error message
+     * @return indexes of key columns
+     * @throws IllegalArgumentException if key column is not found in title line
+     */
+    public static int[] resolveKeyColumns(
+            @NotNull CsvHeader header,
+            @NotNull String[] keyElementNames,
+            @NotNull String fileName
+    ) {
+        int[] keyColumns = new int[keyElementNames.length];
+        for (int i = 0; i < keyElementNames.length; i++) {
+            keyColumns[i] = header.indexOf(keyElementNames[i]);
+            if (keyColumns[i] < 0) {
+                throw new IllegalArgumentException(String.format("Key column [%s] is not found in file [%s]. "
+                        + "Title line: %s", keyElementNames[i], fileName, header));
+            }
+        }
+        return keyColumns;
+    }
+
+    /**
+     * The same as {@link #buildKey(CSVRecord, String[], String)}, but key columns are already resolved with
+     * {@link #resolveKeyColumns}
+     */
+    public static CompositeKey buildKey(
+            @NotNull CSVRecord line,
+            @NotNull int[] keyColumns,
+            @NotNull String keyElementNamesSeparator
+    ) {
+        String[] keyValues = new String[keyColumns.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            if (keyColumns[i] >= line.size()) {
+                throw new IllegalArgumentException(String.format("Line %s has only %s values, key column with "
+                        + "index %s is not found", line.getRecordNumber(), line.size(), keyColumns[i]));
+            }
+            keyValues[i] = line.get(keyColumns[i]);
+        }
+        return new CompositeKey(keyValues, keyElementNamesSeparator);
+    }
+
+    /**
+     * Create temporary file for intermediate results (e.g. sorted or partitioned lines)
+     *
+     * @param temporaryFolder folder for temporary file, default temporary folder is used if it is {@code null}
+     * @param prefix prefix of file name
+     */
+    public static Path createTemporaryFile(@Nullable Path temporaryFolder, @NotNull String prefix) throws IOException {
+        return temporaryFolder == null
+                ? Files.createTempFile(prefix, ".csv")
+                : Files.createTempFile(temporaryFolder, prefix, ".csv");
+    }
+
+    /**
+     * Open temporary file to write lines, {@code header} is written as the first line
+     */
+    public static CSVPrinter openTemporaryFileForWriting(
+            @NotNull Path temporaryFile,
+            @NotNull String[] header
+    ) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(temporaryFile, TEMPORARY_FILE_CHARSET);
+        return CSVFormat.EXCEL.withHeader(header).print(writer);
     }
 
     /**
-     * Write detected errors into file
+     * Open temporary file created with {@link #openTemporaryFileForWriting} to read it line by line
+     */
+    public static CSVParser openTemporaryFile(@NotNull Path temporaryFile) throws IOException {
+        return CSVFormat.EXCEL.withFirstRecordAsHeader()
+                .parse(Files.newBufferedReader(temporaryFile, TEMPORARY_FILE_CHARSET));
+    }
+
+    /**
+     * Delete temporary files, files which cannot be deleted are ignored
+     */
+    public static void deleteTemporaryFiles(@NotNull Iterable<Path> temporaryFiles) {
+        for (Path temporaryFile : temporaryFiles) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException ignored) {
+                // temporary file is not deleted, nothing else can be done
+            }
+        }
+    }
+
+    /**
+     * Write detected errors into file, file is compressed if its name ends with {@link #GZIP_EXTENSION}
      *
      * @param fileName full file name to write report
      * @param detectedErrors list of detected errors
@@ -97,7 +696,10 @@ public class CsvUtil {
             @Nullable Charset fileCharset
     ) {
         Path pathToFile = Paths.get(fileName);
-        try (BufferedWriter bw = Files.newBufferedWriter(pathToFile, fileCharset == null ? DEFAULT_FILE_CHARSET : fileCharset)) {
+        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+                openReportStream(pathToFile),
+                (fileCharset == null ? DEFAULT_FILE_CHARSET : fileCharset).newEncoder()
+        ))) {
             bw.write("#," + DetectedError.getCSVTitle());
             bw.newLine();
             for (int i = 0; i < detectedErrors.size(); i++) {
@@ -109,10 +711,13 @@ public class CsvUtil {
         }
     }
 
-    private void fillDetectedError(
+    /**
+     * Record duplicated line of file: value of key columns of {@code previousRaw} is stored to display in report
+     */
+    public static void fillDetectedError(
             @NotNull String fileName,
             @NotNull String[] keyElementNames,
-            @NotNull List<DetectedError> detectedErrors,
+            @NotNull DetectedErrorSink detectedErrors,
             Map<String, String> previousRaw
     ) {
         DetectedError detectedError = new DetectedError("Duplication is found: value is ignored");
@@ -122,13 +727,85 @@ public class CsvUtil {
         detectedErrors.add(detectedError);
     }
 
+    /**
+     * The same as {@link #fillDetectedError(String, String[], DetectedErrorSink, Map)}, but error is added into list
+     */
+    public static void fillDetectedError(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull List<DetectedError> detectedErrors,
+            Map<String, String> previousRaw
+    ) {
+        fillDetectedError(fileName, keyElementNames, detectedErrors::add, previousRaw);
+    }
+
     private static List<String> extractColumnsForKey(Map<String, String> row, String[] columns) {
         List<String> columnsForKey = new ArrayList<>();
         Arrays.stream(columns).forEach(column -> columnsForKey.add(row.get(column)));
         return columnsForKey;
     }
 
+    /**
+     * @return {@code true} if file is compressed with gzip (it is detected by content, not by file name)
+     */
+    public static boolean isCompressed(@NotNull Path pathToFile) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(pathToFile)) {
+            return isGzipStream(inputStream);
+        }
+    }
+
+    /**
+     * @return estimated size of file content in bytes: size of file or estimated size of decompressed content if file
+     * is compressed, 0 if file is not found
+     */
+    public static long estimateDataSize(@NotNull String fileName) {
+        Path pathToFile = Paths.get(fileName);
+        long size = pathToFile.toFile().length();
+        try {
+            return size > 0 && isCompressed(pathToFile) ? size * COMPRESSION_RATIO_ESTIMATE : size;
+        } catch (IOException ex) {
+            return size;
+        }
+    }
+
+    /**
+     * Open stream to write report, report is compressed with gzip if file name ends with {@link #GZIP_EXTENSION}
+     */
+    public static OutputStream openReportStream(@NotNull Path pathToFile) throws IOException {
+        OutputStream outputStream = Files.newOutputStream(pathToFile);
+        if (pathToFile.getFileName().toString().endsWith(GZIP_EXTENSION)) {
+            return new GZIPOutputStream(outputStream, IO_BUFFER_SIZE);
+        }
+        return outputStream;
+    }
+
+    /**
+     * Open file to read, gzip file (including file with several gzip members) is decompressed in separate thread
+     * while read lines are parsed
+     */
     Reader getFileInputStream(Path pathToFile, Charset fileCharset) throws IOException {
-        return Files.newBufferedReader(pathToFile, fileCharset == null ? DEFAULT_FILE_CHARSET : fileCharset);
+        Charset charset = fileCharset == null ? DEFAULT_FILE_CHARSET : fileCharset;
+        InputStream inputStream = new BufferedInputStream(Files.newInputStream(pathToFile), IO_BUFFER_SIZE);
+        try {
+            inputStream.mark(GZIP_MAGIC.length);
+            boolean compressed = isGzipStream(inputStream);
+            inputStream.reset();
+            if (compressed) {
+                inputStream = new PipelinedInputStream(new GZIPInputStream(inputStream, IO_BUFFER_SIZE));
+            }
+        } catch (IOException ex) {
+            inputStream.close();
+            throw ex;
+        }
+        return new BufferedReader(new InputStreamReader(inputStream, charset.newDecoder()));
+    }
+
+    private static boolean isGzipStream(InputStream inputStream) throws IOException {
+        for (byte magicByte : GZIP_MAGIC) {
+            if (inputStream.read() != (magicByte & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,236 @@
+package net.hor1zont.csv.comparator.utils;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sort CSV file of any size by key (the same key as in {@link CsvUtil#convertFileToFormattedMap}) with limited
+ * memory: file is read by chunks of {@code runSize} lines, every chunk is sorted in memory and stored into temporary
+ * file (sorted run), then sorted runs are merged by {@code mergeFanIn} files at once. Sorting is stable: lines with
+ * the same key keep their order from the source file.
+ */
+public class ExternalCsvSorter {
+
+    public static final int DEFAULT_RUN_SIZE = 500_000;
+    public static final int DEFAULT_MERGE_FAN_IN = 64;
+
+    private static final String TEMPORARY_FILE_PREFIX = "csv-comparator-sort";
+
+    private final CsvUtil csvUtil;
+    private final int runSize;
+    private final int mergeFanIn;
+    private final Path temporaryFolder;
+
+    /**
+     * @param csvUtil util to read source file
+     * @param runSize max count of lines to sort in memory at once
+     * @param mergeFanIn max count of sorted runs to merge at once
+     * @param temporaryFolder folder for temporary files, default temporary folder is used if it is {@code null}
+     */
+    public ExternalCsvSorter(
+            @NotNull CsvUtil csvUtil,
+            int runSize,
+            int mergeFanIn,
+            @Nullable Path temporaryFolder
+    ) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException(String.format("Run size should be positive, but it is %s", runSize));
+        }
+        if (mergeFanIn < 2) {
+            throw new IllegalArgumentException(String.format("Merge fan-in should be at least 2, but it is %s",
+                    mergeFanIn));
+        }
+        this.csvUtil = csvUtil;
+        this.runSize = runSize;
+        this.mergeFanIn = mergeFanIn;
+        this.temporaryFolder = temporaryFolder;
+    }
+
+    /**
+     * Sort CSV file by key. Result file has the same title line and is written in
+     * {@link CsvUtil#TEMPORARY_FILE_CHARSET}, it can be read with {@link CsvUtil#openTemporaryFile}.
+     *
+     * @param fileName full path to source file
+     * @param keyElementNames column names which values should be used as a key
+     * @param keyElementNamesSeparator separator/delimiter which used only for multi valued keyElementNames
+     * @param keyComparator comparator to sort keys, see {@link CompositeKey#comparator}
+     * @param fileCharset source file charset (default is {@link CsvUtil#DEFAULT_FILE_CHARSET})
+     * @return temporary file with sorted lines, should be deleted after usage
+     */
+    public Path sort(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Comparator<String> keyComparator,
+            @Nullable Charset fileCharset
+    ) {
+        Comparator<CompositeKey> comparator = CompositeKey.comparator(keyComparator);
+        List<Path> runs = new ArrayList<>();
+        try {
+            String[] header;
+            int[] keyColumns;
+            try (CSVParser parser = csvUtil.openCsvFile(fileName, fileCharset)) {
+                header = parser.getHeaderNames().toArray(new String[0]);
+                keyColumns = CsvUtil.resolveKeyColumns(new CsvHeader(header), keyElementNames, fileName);
+                List<KeyedLine> chunk = new ArrayList<>();
+                for (CSVRecord line : parser) {
+                    chunk.add(new KeyedLine(CsvUtil.buildKey(line, keyColumns, keyElementNamesSeparator), line));
+                    if (chunk.size() == runSize) {
+                        runs.add(writeRun(chunk, header, comparator));
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty() || runs.isEmpty()) {
+                    runs.add(writeRun(chunk, header, comparator));
+                }
+            }
+
+            // Merge runs until only one sorted file is left
+            while (runs.size() > 1) {
+                List<Path> mergedRuns = new ArrayList<>();
+                try {
+                    for (int i = 0; i < runs.size(); i += mergeFanIn) {
+                        List<Path> runsToMerge = runs.subList(i, Math.min(i + mergeFanIn, runs.size()));
+                        mergedRuns.add(mergeRuns(runsToMerge, header, keyColumns, keyElementNamesSeparator,
+                                comparator));
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    CsvUtil.deleteTemporaryFiles(mergedRuns);
+                    throw ex;
+                }
+                CsvUtil.deleteTemporaryFiles(runs);
+                runs = mergedRuns;
+            }
+            return runs.get(0);
+        } catch (IOException ex) {
+            CsvUtil.deleteTemporaryFiles(runs);
+            throw new IllegalStateException(String.format("Fail to sort file [%s]", fileName), ex);
+        } catch (RuntimeException ex) {
+            CsvUtil.deleteTemporaryFiles(runs);
+            throw ex;
+        }
+    }
+
+    private Path writeRun(
+            List<KeyedLine> chunk,
+            String[] header,
+            Comparator<CompositeKey> keyComparator
+    ) throws IOException {
+
+        // List.sort is stable - duplicated keys keep order of source file
+        chunk.sort((line1, line2) -> keyComparator.compare(line1.key, line2.key));
+        Path run = CsvUtil.createTemporaryFile(temporaryFolder, TEMPORARY_FILE_PREFIX);
+        try (CSVPrinter printer = CsvUtil.openTemporaryFileForWriting(run, header)) {
+            for (KeyedLine keyedLine : chunk) {
+                printer.printRecord(keyedLine.line);
+            }
+        }
+        return run;
+    }
+
+    private Path mergeRuns(
+            List<Path> runsToMerge,
+            String[] header,
+            int[] keyColumns,
+            String keyElementNamesSeparator,
+            Comparator<CompositeKey> keyComparator
+    ) throws IOException {
+
+        // Runs are ordered as in source file, so run order is used for equal keys to keep sorting stable
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((run1, run2) -> {
+            int keysComparison = keyComparator.compare(run1.key, run2.key);
+            return keysComparison != 0 ? keysComparison : Integer.compare(run1.order, run2.order);
+        });
+        List<RunReader> readers = new ArrayList<>();
+        Path mergedRun = CsvUtil.createTemporaryFile(temporaryFolder, TEMPORARY_FILE_PREFIX);
+        try (CSVPrinter printer = CsvUtil.openTemporaryFileForWriting(mergedRun, header)) {
+            for (int i = 0; i < runsToMerge.size(); i++) {
+                RunReader reader = new RunReader(runsToMerge.get(i), i, keyColumns, keyElementNamesSeparator);
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                printer.printRecord(reader.line);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        return mergedRun;
+    }
+
+    private static class KeyedLine {
+
+        private final CompositeKey key;
+        private final CSVRecord line;
+
+        KeyedLine(CompositeKey key, CSVRecord line) {
+            this.key = key;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Current line of sorted run during merge
+     */
+    private static class RunReader implements Closeable {
+
+        private final CSVParser parser;
+        private final Iterator<CSVRecord> lines;
+        private final int order;
+        private final int[] keyColumns;
+        private final String keyElementNamesSeparator;
+
+        private CSVRecord line;
+        private CompositeKey key;
+
+        RunReader(
+                Path run,
+                int order,
+                int[] keyColumns,
+                String keyElementNamesSeparator
+        ) throws IOException {
+            this.parser = CsvUtil.openTemporaryFile(run);
+            this.lines = parser.iterator();
+            this.order = order;
+            this.keyColumns = keyColumns;
+            this.keyElementNamesSeparator = keyElementNamesSeparator;
+        }
+
+        boolean next() {
+            if (!lines.hasNext()) {
+                return false;
+            }
+            line = lines.next();
+            key = CsvUtil.buildKey(line, keyColumns, keyElementNamesSeparator);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
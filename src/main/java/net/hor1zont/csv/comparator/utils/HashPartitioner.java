@@ -0,0 +1,149 @@
+package net.hor1zont.csv.comparator.utils;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Split CSV file into several partition files by hash of key (the same key as in
+ * {@link CsvUtil#convertFileToFormattedMap}). Lines with equal keys from different files are always written into
+ * partitions with the same number, so partitions can be compared independently.
+ */
+public class HashPartitioner {
+
+    /**
+     * Approximate ratio between memory which is used by file loaded into Map representation and size of file
+     */
+    public static final int LOADED_FILE_SIZE_FACTOR = 8;
+
+    /**
+     * Max count of partitions: every partition is an opened file during partitioning
+     */
+    public static final int MAX_PARTITIONS_COUNT = 1024;
+
+    private static final String TEMPORARY_FILE_PREFIX = "csv-comparator-partition";
+
+    private final CsvUtil csvUtil;
+    private final Path temporaryFolder;
+
+    /**
+     * @param csvUtil util to read source file
+     * @param temporaryFolder folder for partition files, default temporary folder is used if it is {@code null}
+     */
+    public HashPartitioner(
+            @NotNull CsvUtil csvUtil,
+            @Nullable Path temporaryFolder
+    ) {
+        this.csvUtil = csvUtil;
+        this.temporaryFolder = temporaryFolder;
+    }
+
+    /**
+     * Split file into partitions. Partition files have the same title line and are written in
+     * {@link CsvUtil#TEMPORARY_FILE_CHARSET}, they can be read with {@link CsvUtil#openTemporaryFile}.
+     *
+     * @param fileName full path to source file
+     * @param keyElementNames column names which values should be used as a key
+     * @param keyElementNamesSeparator separator/delimiter which used only for multi valued keyElementNames
+     * @param fileCharset source file charset (default is {@link CsvUtil#DEFAULT_FILE_CHARSET})
+     * @param partitionsCount count of partitions
+     * @return temporary partition files, should be deleted after usage
+     */
+    public List<Path> partition(
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @Nullable Charset fileCharset,
+            int partitionsCount
+    ) {
+        if (partitionsCount < 1 || partitionsCount > MAX_PARTITIONS_COUNT) {
+            throw new IllegalArgumentException(String.format("Partitions count should be from 1 to %s, but it is %s",
+                    MAX_PARTITIONS_COUNT, partitionsCount));
+        }
+        List<Path> partitions = new ArrayList<>();
+        List<CSVPrinter> printers = new ArrayList<>();
+        try (CSVParser parser = csvUtil.openCsvFile(fileName, fileCharset)) {
+            String[] header = parser.getHeaderNames().toArray(new String[0]);
+            int[] keyColumns = CsvUtil.resolveKeyColumns(new CsvHeader(header), keyElementNames, fileName);
+            for (int i = 0; i < partitionsCount; i++) {
+                Path partition = CsvUtil.createTemporaryFile(temporaryFolder, TEMPORARY_FILE_PREFIX);
+                partitions.add(partition);
+                printers.add(CsvUtil.openTemporaryFileForWriting(partition, header));
+            }
+            for (CSVRecord line : parser) {
+                CompositeKey key = CsvUtil.buildKey(line, keyColumns, keyElementNamesSeparator);
+                printers.get(partitionOf(key, partitionsCount)).printRecord(line);
+            }
+            closePrinters(printers);
+            return partitions;
+        } catch (IOException ex) {
+            closePrintersQuietly(printers);
+            CsvUtil.deleteTemporaryFiles(partitions);
+            throw new IllegalStateException(String.format("Fail to split file [%s] into partitions", fileName), ex);
+        } catch (RuntimeException ex) {
+            closePrintersQuietly(printers);
+            CsvUtil.deleteTemporaryFiles(partitions);
+            throw ex;
+        }
+    }
+
+    /**
+     * @return number of partition for key
+     */
+    public static int partitionOf(@NotNull CompositeKey key, int partitionsCount) {
+        int hash = key.hashCode();
+        // spread higher bits, hash of similar keys differs mostly in lower bits
+        return Math.floorMod(hash ^ (hash >>> 16), partitionsCount);
+    }
+
+    /**
+     * Estimate count of partitions which allows to load into memory both partitions of all compared pairs at once
+     *
+     * @param filesSize summary size of compared files
+     * @param availableMemory memory which can be used to load files
+     * @param threadsCount count of partitions pairs which are compared at once
+     * @return count of partitions
+     */
+    public static int estimatePartitionsCount(long filesSize, long availableMemory, int threadsCount) {
+
+        // only half of memory is used for loaded lines, another half is left for detected errors and GC
+        long memoryPerPartition = Math.max(1, availableMemory / 2 / Math.max(1, threadsCount));
+        long partitionsCount = (filesSize * LOADED_FILE_SIZE_FACTOR + memoryPerPartition - 1) / memoryPerPartition;
+        return (int) Math.max(1, Math.min(partitionsCount, MAX_PARTITIONS_COUNT));
+    }
+
+    /**
+     * @return memory which can be allocated by JVM at the moment
+     */
+    public static long getAvailableMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    private static void closePrinters(List<CSVPrinter> printers) throws IOException {
+        while (!printers.isEmpty()) {
+            printers.remove(printers.size() - 1).close();
+        }
+    }
+
+    private static void closePrintersQuietly(List<CSVPrinter> printers) {
+        for (CSVPrinter printer : printers) {
+            try {
+                printer.close();
+            } catch (IOException ignored) {
+                // partition files are deleted anyway
+            }
+        }
+        printers.clear();
+    }
+}
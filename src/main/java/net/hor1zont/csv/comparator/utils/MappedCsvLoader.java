@@ -0,0 +1,324 @@
+package net.hor1zont.csv.comparator.utils;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import net.hor1zont.csv.comparator.twofiles.DetectedErrorSink;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Loads csv file into Map representation in several threads. File is memory-mapped and split into chunks of about
+ * {@link #DEFAULT_CHUNK_SIZE} bytes which end at the end of line (new lines in quoted values are skipped), chunks are
+ * parsed in parallel. Parsed lines of chunks are put into Map in order of chunks in the current thread, so duplicated
+ * keys are found in the same way as in one thread, also across borders of chunks.
+ * <p>
+ * Borders of chunks are found by bytes of quote, delimiter and line breaks in the same way as they are read by
+ * {@link CSVFormat#EXCEL}: value is quoted only if quote is the first char of value, so quote in the middle of not
+ * quoted value does not hide next line breaks. Parts of file are scanned for borders in parallel too: state at the
+ * start of part is unknown, so part is scanned from every possible state (states usually become the same after a few
+ * values) and results of parts are joined in order of parts. Only not compressed files in UTF-8 or in one-byte
+ * charsets are supported, see {@link #isSupported(Path, Charset)}.
+ */
+public class MappedCsvLoader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final byte QUOTE = '"';
+    private static final byte DELIMITER = ',';
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * States of reading of value to find borders of lines
+     */
+    private static final int VALUE_START = 0;
+    private static final int NOT_QUOTED_VALUE = 1;
+    private static final int QUOTED_VALUE = 2;
+    private static final int QUOTE_IN_QUOTED_VALUE = 3;
+    private static final int STATES_COUNT = 4;
+
+    private MappedCsvLoader() {
+    }
+
+    /**
+     * @return {@code true} if file can be split into chunks: file is not compressed and not empty, quote, delimiter and
+     * line breaks are encoded by one byte and these bytes are not used in other chars
+     */
+    public static boolean isSupported(@NotNull Path pathToFile, @Nullable Charset fileCharset) throws IOException {
+        Charset charset = fileCharset == null ? CsvUtil.DEFAULT_FILE_CHARSET : fileCharset;
+        byte[] specialBytes = {QUOTE, DELIMITER, NEW_LINE, CARRIAGE_RETURN};
+        if (!charset.canEncode() || !Arrays.equals("\",\n\r".getBytes(charset), specialBytes)) {
+            return false;
+        }
+        if (!charset.equals(StandardCharsets.UTF_8) && charset.newEncoder().maxBytesPerChar() != 1) {
+            return false;
+        }
+        return Files.size(pathToFile) > 0 && !CsvUtil.isCompressed(pathToFile);
+    }
+
+    /**
+     * Put lines of file into Map representation, see {@link CsvUtil#convertLinesToFormattedMap} for details
+     *
+     * @param pathToFile file to read
+     * @param fileCharset file charset
+     * @param fileName name of file to display in report
+     * @param keyElementNames column names which values should be used in every row for Map's key
+     * @param keyElementNamesSeparator separator/delimiter which used only for multi valued keyElementNames
+     * @param fileMapRepresentation Map to fill
+     * @param detectedErrors object to record not critical error for next analyze
+     * @param headerValidator check of title line before reading of other lines, can be {@code null}
+     * @param threadsCount count of threads to parse chunks
+     */
+    public static void load(
+            @NotNull Path pathToFile,
+            @NotNull Charset fileCharset,
+            @NotNull String fileName,
+            @NotNull String[] keyElementNames,
+            @NotNull String keyElementNamesSeparator,
+            @NotNull Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            @NotNull DetectedErrorSink detectedErrors,
+            @Nullable Consumer<CsvHeader> headerValidator,
+            int threadsCount
+    ) throws IOException {
+        load(
+                pathToFile,
+                fileCharset,
+                fileName,
+                keyElementNames,
+                keyElementNamesSeparator,
+                fileMapRepresentation,
+                detectedErrors,
+                headerValidator,
+                threadsCount,
+                DEFAULT_CHUNK_SIZE
+        );
+    }
+
+    static void load(
+            Path pathToFile,
+            Charset fileCharset,
+            String fileName,
+            String[] keyElementNames,
+            String keyElementNamesSeparator,
+            Map<CompositeKey, Map<String, String>> fileMapRepresentation,
+            DetectedErrorSink detectedErrors,
+            Consumer<CsvHeader> headerValidator,
+            int threadsCount,
+            int chunkSize
+    ) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathToFile)) {
+            List<Long> borders = findChunkBorders(channel, chunkSize, threadsCount);
+
+            // the first chunk is only title line
+            CsvHeader header;
+            try (CSVParser titleLine = CSVFormat.EXCEL.withFirstRecordAsHeader()
+                    .parse(openChunk(channel, 0, borders.get(0), fileCharset))) {
+                header = CsvHeader.of(titleLine);
+            }
+            int[] keyColumns = CsvUtil.resolveKeyColumns(header, keyElementNames, fileName);
+            if (headerValidator != null) {
+                headerValidator.accept(header);
+            }
+            List<Callable<List<Map.Entry<CompositeKey, CsvRow>>>> chunks = new ArrayList<>();
+            for (int i = 1; i < borders.size(); i++) {
+                long start = borders.get(i - 1);
+                long end = borders.get(i);
+                chunks.add(() -> parseChunk(channel, start, end, fileCharset, header, keyColumns,
+                        keyElementNamesSeparator));
+            }
+            ParallelUtil.runInOrder(chunks, threadsCount, line -> CsvUtil.putLine(
+                    fileMapRepresentation,
+                    line.getKey(),
+                    line.getValue(),
+                    fileName,
+                    keyElementNames,
+                    detectedErrors
+            ));
+        }
+    }
+
+    /**
+     * @return end positions of chunks: the first chunk is title line, other chunks end at the end of the first line
+     * which ends in the next part of {@code chunkSize} bytes, the last chunk ends at the end of file
+     */
+    static List<Long> findChunkBorders(FileChannel channel, int chunkSize, int threadsCount) throws IOException {
+        long size = channel.size();
+        List<Callable<List<PartScan>>> parts = new ArrayList<>();
+        for (long partStart = 0; partStart < size; partStart += chunkSize) {
+            long start = partStart;
+            int length = (int) Math.min(chunkSize, size - partStart);
+            parts.add(() -> Collections.singletonList(scanPart(channel, start, length)));
+        }
+
+        // the first part starts at the start of value, state at the start of next part is state at the end of previous
+        List<Long> borders = new ArrayList<>();
+        int[] state = {VALUE_START};
+        ParallelUtil.runInOrder(parts, threadsCount, part -> {
+            if (part.lineEnds[state[0]] >= 0) {
+                borders.add(part.lineEnds[state[0]]);
+            }
+            state[0] = part.endStates[state[0]];
+        });
+        if (borders.isEmpty() || borders.get(borders.size() - 1) < size) {
+            borders.add(size);
+        }
+        return borders;
+    }
+
+    /**
+     * Scan part of file from every possible state at the start of part
+     */
+    private static PartScan scanPart(FileChannel channel, long partStart, int length) throws IOException {
+        MappedByteBuffer part = channel.map(FileChannel.MapMode.READ_ONLY, partStart, length);
+        PartScan scan = new PartScan();
+        int[] states = scan.endStates;
+        int position = 0;
+        boolean converged = false;
+        while (position < length && !converged) {
+            byte value = part.get(position++);
+            converged = true;
+            for (int i = 0; i < STATES_COUNT; i++) {
+                if (scan.lineEnds[i] < 0 && isLineEnd(states[i], value)) {
+                    scan.lineEnds[i] = partStart + position;
+                }
+                states[i] = nextState(states[i], value);
+                converged &= states[i] == states[0] && (scan.lineEnds[i] < 0) == (scan.lineEnds[0] < 0);
+            }
+        }
+
+        if (!converged) {
+            return scan;
+        }
+
+        // all states are the same, so the rest of part is scanned once
+        int state = states[0];
+        boolean lineEndFound = scan.lineEnds[0] >= 0;
+        while (position < length) {
+            byte value = part.get(position++);
+            if (!lineEndFound && isLineEnd(state, value)) {
+                lineEndFound = true;
+                Arrays.fill(scan.lineEnds, partStart + position);
+            }
+            state = nextState(state, value);
+        }
+        Arrays.fill(states, state);
+        return scan;
+    }
+
+    private static boolean isLineEnd(int state, byte value) {
+        return value == NEW_LINE && state != QUOTED_VALUE;
+    }
+
+    private static int nextState(int state, byte value) {
+        if (state == QUOTED_VALUE) {
+            return value == QUOTE ? QUOTE_IN_QUOTED_VALUE : QUOTED_VALUE;
+        }
+        if (value == QUOTE) {
+
+            // escaped quote is 2 quotes, quote in the middle of not quoted value is a usual char
+            return state == NOT_QUOTED_VALUE ? NOT_QUOTED_VALUE : QUOTED_VALUE;
+        }
+        if (value == DELIMITER || value == CARRIAGE_RETURN || value == NEW_LINE) {
+            return VALUE_START;
+        }
+        return NOT_QUOTED_VALUE;
+    }
+
+    private static List<Map.Entry<CompositeKey, CsvRow>> parseChunk(
+            FileChannel channel,
+            long start,
+            long end,
+            Charset fileCharset,
+            CsvHeader header,
+            int[] keyColumns,
+            String keyElementNamesSeparator
+    ) throws IOException {
+        List<Map.Entry<CompositeKey, CsvRow>> lines = new ArrayList<>();
+        try (CSVParser parser = CSVFormat.EXCEL.parse(openChunk(channel, start, end, fileCharset))) {
+            for (CSVRecord line : parser) {
+                lines.add(new AbstractMap.SimpleImmutableEntry<>(
+                        CsvUtil.buildKey(line, keyColumns, keyElementNamesSeparator),
+                        CsvRow.of(header, line)
+                ));
+            }
+        }
+        return lines;
+    }
+
+    private static Reader openChunk(FileChannel channel, long start, long end, Charset fileCharset)
+            throws IOException {
+        ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        return new InputStreamReader(new ByteBufferInputStream(chunk), fileCharset.newDecoder());
+    }
+
+    /**
+     * Result of scan of part of file for every state at the start of part (index of array is the state)
+     */
+    private static final class PartScan {
+
+        /**
+         * Position after the first line break of part or {@code -1} if line does not end in part
+         */
+        private final long[] lineEnds = {-1, -1, -1, -1};
+        private final int[] endStates = {VALUE_START, NOT_QUOTED_VALUE, QUOTED_VALUE, QUOTE_IN_QUOTED_VALUE};
+    }
+
+    /**
+     * Stream to read bytes of memory-mapped chunk
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@NotNull byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
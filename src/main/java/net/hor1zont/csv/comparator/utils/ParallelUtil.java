@@ -0,0 +1,155 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Util to run independent parts of work in several threads
+ */
+public class ParallelUtil {
+
+    private ParallelUtil() {
+    }
+
+    /**
+     * Count of tasks per thread which can be finished before results of previous tasks are consumed
+     */
+    private static final int TASKS_AHEAD_PER_THREAD = 2;
+
+    /**
+     * Run 2 tasks at once: {@code first} in separate thread and {@code second} in the current thread. The first
+     * failure of any task is thrown after both tasks are finished or after failure of {@code second}.
+     *
+     * @return results of both tasks in order of tasks
+     */
+    public static <T> List<T> runConcurrently(@NotNull Callable<T> first, @NotNull Callable<T> second) {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<T> firstResult = executorService.submit(first);
+            T secondResult = second.call();
+            List<T> results = new ArrayList<>(2);
+            results.add(firstResult.get());
+            results.add(secondResult);
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel work is interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Run tasks in several threads and join their results in order of tasks, so result does not depend on count of
+     * threads. The first failure of any task is thrown.
+     *
+     * @param tasks tasks to run
+     * @param threadsCount max count of tasks which are run at once
+     * @return results of all tasks
+     */
+    public static <T> List<T> runInOrder(
+            @NotNull List<Callable<List<T>>> tasks,
+            int threadsCount
+    ) {
+        List<T> results = new ArrayList<>();
+        runInOrder(tasks, threadsCount, results::add);
+        return results;
+    }
+
+    /**
+     * The same as {@link #runInOrder(List, int)}, but results of every task are passed to {@code consumer} in order of
+     * tasks as soon as all previous tasks are finished. Only a few tasks are started ahead of consumed one, so only
+     * results of these tasks are kept in memory at once. {@code consumer} is called in the current thread.
+     *
+     * @param tasks tasks to run
+     * @param threadsCount max count of tasks which are run at once
+     * @param consumer receiver of results
+     */
+    public static <T> void runInOrder(
+            @NotNull List<Callable<List<T>>> tasks,
+            int threadsCount,
+            @NotNull Consumer<? super T> consumer
+    ) {
+        runInOrder(tasks.iterator(), Math.min(threadsCount, tasks.size()), consumer);
+    }
+
+    /**
+     * The same as {@link #runInOrder(List, int, Consumer)}, but tasks are taken from {@code tasks} in the current
+     * thread only when they can be started, so tasks can be created one by one (e.g. from parts of large file) and
+     * only a few of them are kept in memory at once.
+     *
+     * @param tasks tasks to run
+     * @param threadsCount max count of tasks which are run at once
+     * @param consumer receiver of results
+     */
+    public static <T> void runInOrder(
+            @NotNull Iterator<Callable<List<T>>> tasks,
+            int threadsCount,
+            @NotNull Consumer<? super T> consumer
+    ) {
+        if (threadsCount <= 1) {
+            while (tasks.hasNext()) {
+                try {
+                    tasks.next().call().forEach(consumer);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(threadsCount);
+        try {
+            int tasksAhead = threadsCount * TASKS_AHEAD_PER_THREAD;
+            Deque<Future<List<T>>> futures = new ArrayDeque<>();
+            while (tasks.hasNext() && futures.size() < tasksAhead) {
+                futures.add(executorService.submit(tasks.next()));
+            }
+            while (!futures.isEmpty()) {
+                List<T> results = futures.poll().get();
+                if (tasks.hasNext()) {
+                    futures.add(executorService.submit(tasks.next()));
+                }
+                results.forEach(consumer);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel work is interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @return failure of task to throw in the current thread
+     */
+    private static RuntimeException unwrap(ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+            return (RuntimeException) ex.getCause();
+        }
+        if (ex.getCause() instanceof Error) {
+            throw (Error) ex.getCause();
+        }
+        return new IllegalStateException(ex.getCause());
+    }
+}
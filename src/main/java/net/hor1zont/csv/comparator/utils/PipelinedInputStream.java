@@ -0,0 +1,157 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Stream which reads source stream in separate thread by large chunks, so slow source (e.g. decompression of file)
+ * works at the same time with processing of read bytes (e.g. parsing of lines). Only a few chunks are read ahead.
+ * Source stream is closed when it is read to the end or when this stream is closed.
+ */
+public class PipelinedInputStream extends InputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Count of chunks which can be read ahead
+     */
+    private static final int CHUNKS_AHEAD = 4;
+
+    private static final Chunk END_OF_STREAM = new Chunk(new byte[0], 0);
+
+    private final InputStream source;
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(CHUNKS_AHEAD);
+    private final Thread reader;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private Chunk chunk;
+    private int position;
+
+    public PipelinedInputStream(@NotNull InputStream source) {
+        this(source, DEFAULT_CHUNK_SIZE);
+    }
+
+    public PipelinedInputStream(@NotNull InputStream source, int chunkSize) {
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.reader = new Thread(this::readSource, "csv-comparator-pipelined-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return chunk.bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(@NotNull byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk.bytes, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : chunk.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return {@code false} if end of stream is reached
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        while (chunk == null || (position == chunk.length && chunk != END_OF_STREAM)) {
+            try {
+                chunk = chunks.take();
+                position = 0;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Reading is interrupted", ex);
+            }
+        }
+        if (chunk == END_OF_STREAM) {
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void readSource() {
+        try (InputStream input = source) {
+            int length;
+            do {
+                byte[] bytes = new byte[chunkSize];
+                length = 0;
+                int count;
+                while (length < chunkSize && (count = input.read(bytes, length, chunkSize - length)) >= 0) {
+                    length += count;
+                }
+                if (length > 0) {
+                    chunks.put(new Chunk(bytes, length));
+                }
+            } while (length == chunkSize && !closed);
+        } catch (IOException ex) {
+            failure = ex;
+        } catch (InterruptedException ex) {
+            // stream is closed before it is read to the end
+        } catch (Throwable ex) {
+            failure = new IOException("Fail to read source stream", ex);
+        } finally {
+
+            // end of stream is put also after failure, otherwise reading thread waits for next chunk forever
+            if (!closed) {
+                try {
+                    chunks.put(END_OF_STREAM);
+                } catch (InterruptedException ignored) {
+                    // stream is closed
+                }
+            }
+        }
+    }
+
+    private static final class Chunk {
+
+        private final byte[] bytes;
+        private final int length;
+
+        Chunk(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Logs progress of running tasks (loading of file, comparison) with fixed interval in separate thread: count of
+ * processed lines, part of processed data, current throughput and estimated time to the end of task. Counters of
+ * tasks are only read by reporting thread, so processing threads do not do any extra work for progress (e.g. size of
+ * filled Map is used as count of lines). Values of counters can be a little outdated.
+ * <p>
+ * Reporting thread is started with the first task and stopped by {@link #close()}.
+ */
+public class ProgressReporter implements Closeable {
+
+    private static final Logger LOG = LogManager.getLogger(ProgressReporter.class);
+
+    /**
+     * Total amount of work of task which is not known in advance
+     */
+    public static final long UNKNOWN = -1;
+
+    private final long intervalMillis;
+    private final List<Task> tasks = new CopyOnWriteArrayList<>();
+    private volatile LongSupplier differencesCount;
+    private Thread reporter;
+
+    /**
+     * @param intervalMillis interval between reports
+     */
+    public ProgressReporter(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * @param differencesCount count of found differences which is reported with progress of tasks
+     */
+    public void setDifferencesCount(@Nullable LongSupplier differencesCount) {
+        this.differencesCount = differencesCount;
+    }
+
+    /**
+     * Start to report progress of task, {@link Task#close()} should be called at the end of task
+     *
+     * @param name name of task to display
+     * @param lines count of processed lines
+     * @param done processed amount of work, e.g. count of read chars
+     * @param total expected amount of work in the same units as {@code done} or {@link #UNKNOWN}
+     */
+    public synchronized Task startTask(@NotNull String name, @NotNull LongSupplier lines, @NotNull LongSupplier done,
+                                       long total) {
+        Task task = new Task(this, name, lines, done, total);
+        tasks.add(task);
+        if (reporter == null) {
+            reporter = new Thread(this::reportPeriodically, "csv-comparator-progress");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+        return task;
+    }
+
+    /**
+     * Log progress of all running tasks
+     */
+    public void report() {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Task task : tasks) {
+            LOG.info(task.describe(now));
+        }
+        LongSupplier differences = differencesCount;
+        if (differences != null) {
+            LOG.info(String.format("differences found: %s", differences.getAsLong()));
+        }
+    }
+
+    /**
+     * Stop reporting thread, it is started again with the next task
+     */
+    @Override
+    public void close() {
+        Thread stoppedReporter;
+        synchronized (this) {
+            stoppedReporter = reporter;
+            reporter = null;
+        }
+        if (stoppedReporter != null) {
+            stoppedReporter.interrupt();
+            try {
+                stoppedReporter.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void reportPeriodically() {
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            report();
+        }
+    }
+
+    /**
+     * Running task, all counters are read only by reporting thread
+     */
+    public static final class Task implements Closeable {
+
+        private final ProgressReporter progressReporter;
+        private final String name;
+        private final LongSupplier lines;
+        private final LongSupplier done;
+        private final long total;
+        private final long startNanos = System.nanoTime();
+
+        private long reportedLines;
+        private long reportedNanos = startNanos;
+
+        private Task(ProgressReporter progressReporter, String name, LongSupplier lines, LongSupplier done,
+                     long total) {
+            this.progressReporter = progressReporter;
+            this.name = name;
+            this.lines = lines;
+            this.done = done;
+            this.total = total;
+        }
+
+        /**
+         * @return line of progress report: count of lines, throughput since previous report and estimate of the end
+         * of task if total amount of work is known
+         */
+        synchronized String describe(long now) {
+            long currentLines = lines.getAsLong();
+            long elapsedNanos = Math.max(1, now - startNanos);
+            long throughput = (long) ((currentLines - reportedLines) * (double) TimeUnit.SECONDS.toNanos(1)
+                    / Math.max(1, now - reportedNanos));
+            reportedLines = currentLines;
+            reportedNanos = now;
+            StringBuilder description = new StringBuilder(name)
+                    .append(": ").append(currentLines).append(" lines, ")
+                    .append(throughput).append(" lines/s");
+            long currentDone = done.getAsLong();
+            if (total > 0 && currentDone > 0) {
+                double part = Math.min(1.0, (double) currentDone / total);
+                long remainingSeconds = TimeUnit.NANOSECONDS.toSeconds((long) (elapsedNanos * (1 - part) / part));
+                description.append(String.format(", %s%% (about %s lines), ETA %02d:%02d:%02d",
+                        (int) (part * 100),
+                        (long) (currentLines / part),
+                        remainingSeconds / 3600,
+                        remainingSeconds / 60 % 60,
+                        remainingSeconds % 60
+                ));
+            }
+            return description.toString();
+        }
+
+        /**
+         * Stop reporting of the task
+         */
+        @Override
+        public void close() {
+            progressReporter.tasks.remove(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+
+public class CompositeKeyTest {
+
+    @Test
+    public void testSeparatorInValues() {
+        CompositeKey key1 = new CompositeKey(new String[]{"a_b", "c"}, "_");
+        CompositeKey key2 = new CompositeKey(new String[]{"a", "b_c"}, "_");
+
+        // Verification
+        Assert.assertEquals(key1.toString(), key2.toString());
+        Assert.assertNotEquals(key1, key2);
+        Assert.assertNotEquals(0, key1.compareTo(key2));
+    }
+
+    @Test
+    public void testEqualKeys() {
+        CompositeKey key1 = new CompositeKey(new String[]{"11", "Aaa"}, "_");
+        CompositeKey key2 = new CompositeKey(new String[]{"11", "Aaa"}, " ");
+
+        // Verification
+        Assert.assertEquals(key1, key2);
+        Assert.assertEquals(key1.hashCode(), key2.hashCode());
+        Assert.assertEquals(0, key1.compareTo(key2));
+        Assert.assertEquals("11_Aaa", key1.toString());
+        Assert.assertEquals("11 Aaa", key2.toString());
+    }
+
+    @Test
+    public void testComparator() {
+        CompositeKey key1 = new CompositeKey(new String[]{"11", "b"}, "_");
+        CompositeKey key2 = new CompositeKey(new String[]{"11", "a"}, "_");
+        Comparator<CompositeKey> reversed = CompositeKey.comparator(Comparator.reverseOrder());
+
+        // Verification
+        Assert.assertTrue(CompositeKey.comparator(null).compare(key1, key2) > 0);
+        Assert.assertTrue(reversed.compare(key1, key2) < 0);
+    }
+}
@@ -0,0 +1,46 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class CsvRowTest {
+
+    @Test
+    public void testSameAsRecordMap() throws IOException {
+        try (CSVParser parser = CSVFormat.EXCEL.withFirstRecordAsHeader()
+                .parse(new StringReader("id,name,pas,object\n11,Aaa,12341,simple\n12,Bbb\n"))) {
+            CsvHeader header = CsvHeader.of(parser);
+            for (CSVRecord record : parser) {
+                CsvRow row = CsvRow.of(header, record);
+
+                // Verification
+                Assert.assertEquals(record.toMap(), row);
+                Assert.assertEquals(row, record.toMap());
+                Assert.assertEquals(record.toMap().hashCode(), row.hashCode());
+                Assert.assertEquals(record.toMap().size(), row.size());
+                Assert.assertEquals(record.get(1), row.get(1));
+                Assert.assertEquals(record.get("name"), row.get("name"));
+            }
+        }
+    }
+
+    @Test
+    public void testMissingColumn() {
+        CsvHeader header = new CsvHeader(new String[]{"id", "name", "pas"});
+        CsvRow row = new CsvRow(header, new String[]{"11", "Aaa"});
+
+        // Verification
+        Assert.assertEquals(-1, header.indexOf("object"));
+        Assert.assertNull(row.get("object"));
+        Assert.assertNull(row.get("pas"));
+        Assert.assertNull(row.get(2));
+        Assert.assertFalse(row.containsKey("pas"));
+        Assert.assertEquals("{id=11, name=Aaa}", row.toString());
+    }
+}
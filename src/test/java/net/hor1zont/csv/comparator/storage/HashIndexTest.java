@@ -0,0 +1,55 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class HashIndexTest {
+
+    @Test
+    public void testSameAsLinkedHashMap() {
+        Map<CompositeKey, Integer> expected = new LinkedHashMap<>();
+        Map<CompositeKey, Integer> index = new HashIndex<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            CompositeKey key = new CompositeKey(new String[]{String.valueOf(random.nextInt(5_000)), "k"}, "_");
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), index.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, i), index.put(key, i));
+            }
+        }
+
+        // Verification
+        Assert.assertEquals(expected.size(), index.size());
+        Assert.assertEquals(expected, index);
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(index.keySet()));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        Map<String, Integer> index = new HashIndex<>(2);
+        for (String key : Arrays.asList("c", "a", "d", "b")) {
+            index.put(key, key.length());
+        }
+        index.remove("a");
+        index.put("a", 2);
+        Iterator<String> keys = index.keySet().iterator();
+        keys.next();
+        keys.remove();
+
+        // Verification
+        List<String> expected = Arrays.asList("d", "b", "a");
+        Assert.assertEquals(expected, new ArrayList<>(index.keySet()));
+        Assert.assertNull(index.get("c"));
+        Assert.assertFalse(index.containsKey("c"));
+        Assert.assertEquals(Integer.valueOf(2), index.get("a"));
+    }
+}
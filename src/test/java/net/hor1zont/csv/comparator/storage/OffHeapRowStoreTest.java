@@ -0,0 +1,71 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class OffHeapRowStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final CsvHeader header = new CsvHeader(new String[]{"id", "name", "comment"});
+
+    @Test
+    public void testSameAsHashMap() throws IOException {
+        Map<CompositeKey, Map<String, String>> expected = new HashMap<>();
+        File scratchFile = temporaryFolder.newFile("lines");
+        try (OffHeapRowStore store = new OffHeapRowStore("_", scratchFile.toPath())) {
+            Random random = new Random(1);
+            for (int i = 0; i < 50_000; i++) {
+                String id = String.valueOf(random.nextInt(5_000));
+                CompositeKey key = new CompositeKey(new String[]{id, "k\u00e9"}, "_");
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals(expected.remove(key), store.remove(key));
+                } else {
+                    CsvRow row = new CsvRow(header, new String[]{id, "name-\u00c4" + i, ""});
+                    Assert.assertEquals(expected.put(key, row), store.put(key, row));
+                }
+            }
+
+            // Verification
+            Assert.assertEquals(expected.size(), store.size());
+            Assert.assertEquals(expected, store);
+            Assert.assertEquals(expected.keySet(), new HashSet<>(store.keySet()));
+            Assert.assertTrue(store.keySet().iterator().next().toString().endsWith("_k\u00e9"));
+        }
+        Assert.assertFalse(scratchFile.exists());
+    }
+
+    @Test
+    public void testLazyRowsInOrderOfInsertion() throws IOException {
+        try (OffHeapRowStore store = new OffHeapRowStore("", temporaryFolder.newFile("lines").toPath())) {
+            for (String id : Arrays.asList("c", "a", "d", "b")) {
+                store.put(new CompositeKey(new String[]{id}, ""), new CsvRow(header, new String[]{id, "n-" + id}));
+            }
+            store.remove(new CompositeKey(new String[]{"a"}, ""));
+            CsvRow row = (CsvRow) store.get(new CompositeKey(new String[]{"d"}, ""));
+
+            // Verification: row is shorter than title line
+            Assert.assertEquals(Arrays.asList("c", "d", "b"), new ArrayList<>(store.keySet()).stream()
+                    .map(CompositeKey::toString)
+                    .collect(Collectors.toList()));
+            Assert.assertSame(header, row.getHeader());
+            Assert.assertEquals(2, row.getValuesCount());
+            Assert.assertEquals("n-d", row.get("name"));
+            Assert.assertNull(row.get("comment"));
+            Assert.assertNull(store.get(new CompositeKey(new String[]{"a"}, "")));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.hor1zont.csv.comparator.storage;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class RowSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final CsvHeader header = new CsvHeader(new String[]{"id", "name", "comment"});
+    private final String[] keys = {"id", "name"};
+    private final Charset charset = StandardCharsets.UTF_8;
+    private Path sourceFile;
+    private Path snapshotFile;
+
+    @Before
+    public void setup() throws IOException {
+        sourceFile = temporaryFolder.newFile("file.csv").toPath();
+        Files.write(sourceFile, "id,name,comment\n1,a,x\n".getBytes(charset));
+        snapshotFile = temporaryFolder.getRoot().toPath().resolve("file.snapshot");
+    }
+
+    @Test
+    public void testSameAsLoadedMap() throws IOException {
+        Comparator<String> keyComparator = Comparator.reverseOrder();
+        Map<CompositeKey, Map<String, String>> expected = new TreeMap<>(CompositeKey.comparator(keyComparator));
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            String id = String.valueOf(random.nextInt(100_000));
+            String[] values = i % 10 == 0 ? new String[]{id, "k\u00e9"} : new String[]{id, "k\u00e9", "c-" + i};
+            expected.put(new CompositeKey(new String[]{id, "k\u00e9"}, "_"), new CsvRow(header, values));
+        }
+        RowSnapshot.write(snapshotFile, sourceFile, keys, "_", keyComparator, "reverse", charset, expected);
+
+        try (RowSnapshot snapshot = RowSnapshot.open(
+                snapshotFile, sourceFile, keys, "_", keyComparator, "reverse", charset)) {
+
+            // Verification
+            Assert.assertNotNull(snapshot);
+            Assert.assertEquals(expected.size(), snapshot.size());
+            Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(snapshot.keySet()));
+            Assert.assertEquals(expected, snapshot);
+            for (CompositeKey key : expected.keySet()) {
+                Assert.assertEquals(expected.get(key), snapshot.get(key));
+            }
+            Assert.assertNull(snapshot.get(new CompositeKey(new String[]{"-1", "k\u00e9"}, "_")));
+            Assert.assertEquals(header.toString(), snapshot.getHeader().toString());
+        }
+    }
+
+    @Test
+    public void testSnapshotIsNotUsedForChangedFile() throws IOException {
+        RowSnapshot.write(snapshotFile, sourceFile, keys, "", null, null, charset, singleLine(null));
+
+        // Verification: other key columns, key order, charset or content of file
+        Assert.assertNotNull(open(keys, null, null, charset));
+        Assert.assertNull(open(new String[]{"id"}, null, null, charset));
+        Assert.assertNull(open(keys, Comparator.reverseOrder(), "reverse", charset));
+        Assert.assertNull(open(keys, null, null, StandardCharsets.ISO_8859_1));
+        Files.write(sourceFile, "id,name,comment\n1,b,x\n".getBytes(charset));
+        Assert.assertNull(open(keys, null, null, charset));
+        snapshotFile = temporaryFolder.getRoot().toPath().resolve("missing");
+        Assert.assertNull(open(keys, null, null, charset));
+    }
+
+    @Test
+    public void testCustomComparatorIsIdentifiedById() throws IOException {
+        Comparator<String> keyComparator = Comparator.comparing(String::length);
+        Map<CompositeKey, Map<String, String>> lines = singleLine(keyComparator);
+        RowSnapshot.write(snapshotFile, sourceFile, keys, "", keyComparator, "by-length", charset, lines);
+
+        // Verification: comparator of the same class with other id is another order of keys
+        Assert.assertNotNull(open(keys, keyComparator, "by-length", charset));
+        Assert.assertNull(open(keys, Comparator.comparing(String::toUpperCase), "upper-case", charset));
+        try {
+            open(keys, keyComparator, null, charset);
+            Assert.fail("Snapshot should not be used with key comparator without id");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals(
+                    "Id of key comparator is required to use snapshot with key comparator",
+                    ex.getMessage()
+            );
+        }
+    }
+
+    @Test
+    public void testSnapshotIsNotUsedWithOtherKeySeparator() throws IOException {
+        Comparator<String> keyComparator = Comparator.reverseOrder();
+        Map<CompositeKey, Map<String, String>> lines = new TreeMap<>(CompositeKey.comparator(keyComparator));
+        lines.put(new CompositeKey(new String[]{"a", "b"}, "_"), new CsvRow(header, new String[]{"a", "b", "x"}));
+        lines.put(new CompositeKey(new String[]{"a", "c"}, "_"), new CsvRow(header, new String[]{"a", "c", "y"}));
+        RowSnapshot.write(snapshotFile, sourceFile, keys, "_", keyComparator, "reverse", charset, lines);
+
+        // Verification: custom comparator compares keys joined with separator, so order of keys depends on it
+        try (RowSnapshot snapshot = RowSnapshot.open(
+                snapshotFile, sourceFile, keys, "_", keyComparator, "reverse", charset)) {
+            Assert.assertNotNull(snapshot);
+            Assert.assertEquals(lines, snapshot);
+        }
+        Assert.assertNull(RowSnapshot.open(snapshotFile, sourceFile, keys, "|", keyComparator, "reverse", charset));
+        Assert.assertNull(open(keys, null, null, charset));
+    }
+
+    private Map<CompositeKey, Map<String, String>> singleLine(Comparator<String> keyComparator) {
+        Map<CompositeKey, Map<String, String>> lines = new TreeMap<>(CompositeKey.comparator(keyComparator));
+        lines.put(new CompositeKey(new String[]{"1", "a"}, ""), new CsvRow(header, new String[]{"1", "a", "x"}));
+        return lines;
+    }
+
+    private RowSnapshot open(
+            String[] keyElementNames,
+            Comparator<String> keyComparator,
+            String keyComparatorId,
+            Charset fileCharset
+    ) throws IOException {
+        return RowSnapshot.open(
+                snapshotFile,
+                sourceFile,
+                keyElementNames,
+                "",
+                keyComparator,
+                keyComparatorId,
+                fileCharset
+        );
+    }
+}
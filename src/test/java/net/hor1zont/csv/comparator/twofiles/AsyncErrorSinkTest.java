@@ -0,0 +1,45 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AsyncErrorSinkTest {
+
+    @Test
+    public void testOrderOfErrors() {
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        List<DetectedError> expectedErrors = new ArrayList<>();
+        try (AsyncErrorSink asyncErrorSink = new AsyncErrorSink(detectedErrors::add, 7, 2)) {
+            for (int i = 0; i < 1000; i++) {
+                DetectedError detectedError = new DetectedError("primary key is not found in file A")
+                        .setPrimaryKeyB(String.valueOf(i));
+                expectedErrors.add(detectedError);
+                asyncErrorSink.add(detectedError);
+            }
+        }
+
+        // Verification
+        Assert.assertEquals(expectedErrors, detectedErrors);
+    }
+
+    @Test
+    public void testFailureOfReport() {
+        AsyncErrorSink asyncErrorSink = new AsyncErrorSink(detectedError -> {
+            throw new IllegalStateException("Fail to write report");
+        }, 1, 1);
+        try {
+            for (int i = 0; i < 100; i++) {
+                asyncErrorSink.add(new DetectedError("primary key is not found in file A"));
+            }
+            asyncErrorSink.close();
+            Assert.fail("Failure of report should be thrown");
+        } catch (IllegalStateException ex) {
+
+            // Verification
+            Assert.assertEquals("Fail to write report", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class DifferenceStatisticsTest {
+
+    @Test
+    public void testCounters() {
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        DifferenceStatistics statistics = new DifferenceStatistics(detectedErrors::add, 2);
+        ValuesComparisionRule nameRule = new ValuesComparisionRule("name", "Full Name");
+        ValuesComparisionRule titleRule = new ValuesComparisionRule("title", "position");
+        for (int i = 0; i < 100; i++) {
+            statistics.add(mismatch(nameRule, "Alice", "Alice" + i));
+            statistics.add(mismatch(titleRule, "staff", i % 10 == 0 ? "manager" : "NULL"));
+            if (i % 4 == 0) {
+                statistics.add(new DetectedError("primary key is not found in file B")
+                        .setTitleColumnA(new String[]{"phone"})
+                        .setTitleColumnB(new String[]{"Mobile Phone"}));
+            }
+        }
+
+        // Verification
+        Assert.assertEquals(225, detectedErrors.size());
+        Assert.assertEquals(225, statistics.getErrorsCount());
+        Assert.assertEquals(Long.valueOf(200), statistics.getErrorsCountByReason().get("values are not the expected"));
+        Assert.assertEquals(Long.valueOf(25), statistics.getErrorsCountByReason().get("primary key is not found in file B"));
+        Assert.assertEquals(Long.valueOf(100), statistics.getErrorsCountByRule().get(nameRule));
+        Assert.assertEquals(Long.valueOf(100), statistics.getErrorsCountByRule().get(titleRule));
+        Assert.assertEquals(Long.valueOf(25), statistics.getErrorsCountByColumns().get("[phone] - [Mobile Phone]"));
+        Assert.assertEquals(Long.valueOf(100), statistics.getErrorsCountByColumns().get("[title] - [position]"));
+
+        List<Map.Entry<DifferenceStatistics.Mismatch, Long>> topMismatches = statistics.getTopMismatches();
+        Assert.assertEquals(2, topMismatches.size());
+        Assert.assertEquals("[title] - [position]: 'staff' - 'NULL'", topMismatches.get(0).getKey().toString());
+        Assert.assertEquals("[title] - [position]: 'staff' - 'manager'", topMismatches.get(1).getKey().toString());
+        Assert.assertTrue(topMismatches.get(0).getValue() <= 90);
+        Assert.assertTrue(topMismatches.get(0).getValue() > topMismatches.get(1).getValue());
+    }
+
+    private static DetectedError mismatch(ValuesComparisionRule rule, String valueA, String valueB) {
+        return new DetectedError("values are not the expected")
+                .setRule(rule)
+                .setTitleColumnA(rule.getKeysA())
+                .setTitleColumnB(rule.getKeysB())
+                .setValueA(valueA)
+                .setValueB(valueB);
+    }
+}
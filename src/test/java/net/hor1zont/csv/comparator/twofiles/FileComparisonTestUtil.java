@@ -0,0 +1,84 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Rules and helpers shared by tests of comparators which read files: test files are compared with the same rules
+ * and errors are checked against comparison of files loaded into memory
+ */
+public final class FileComparisonTestUtil {
+
+    public static final String[] KEYS_A = new String[]{"phone"};
+    public static final String[] KEYS_B = new String[]{"Mobile Phone"};
+
+    private FileComparisonTestUtil() {
+    }
+
+    public static ValuesComparisionRule[] rules() {
+        return new ValuesComparisionRule[]{
+                new ValuesComparisionRule(new String[]{"name", "surname"}, new String[]{"Full Name"})
+                        .setValueExtractorA(new ValueExtractor(".")),
+                new ValuesComparisionRule(new String[]{"title"}, new String[]{"position"})
+                        .setValidator(new TwoValuesValidator() {
+                            @Override
+                            public boolean equalityFunction(String valueA, String valueB) {
+                                return super.equalityFunction(valueA.toUpperCase(), valueB);
+                            }
+                        })
+        };
+    }
+
+    /**
+     * Compare files loaded into memory with {@link FilesComparator}
+     *
+     * @return errors of loading and comparison of files
+     */
+    public static List<DetectedError> compareInMemory(CsvUtil csvUtil, String fileA, String fileB) {
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        Map<CompositeKey, Map<String, String>> linesA = csvUtil.convertFileToFormattedMap(
+                fileA, KEYS_A, "", null, null, detectedErrors
+        );
+        Map<CompositeKey, Map<String, String>> linesB = csvUtil.convertFileToFormattedMap(
+                fileB, KEYS_B, "", null, null, detectedErrors
+        );
+        FilesComparator filesComparator = new FilesComparator(new ActionsOnDifference());
+        filesComparator.init(fileA, fileB, KEYS_A, KEYS_B, "", linesA, linesB);
+        detectedErrors.addAll(filesComparator.compare(rules()));
+        return detectedErrors;
+    }
+
+    /**
+     * Init comparator to read {@code fileA} and {@code fileB} with {@link #KEYS_A} and {@link #KEYS_B} keys
+     *
+     * @return the same comparator
+     */
+    public static <T extends FileReadingComparator> T init(
+            T comparator,
+            String fileA,
+            String fileB,
+            Comparator<String> keyComparator
+    ) {
+        comparator.init(fileA, fileB, KEYS_A, KEYS_B, "", fileA, fileB, "", "", keyComparator, null, null);
+        return comparator;
+    }
+
+    public static List<String> toCsvLines(List<DetectedError> detectedErrors) {
+        return detectedErrors.stream()
+                .map(DetectedError::toCSVString)
+                .collect(Collectors.toList());
+    }
+
+    public static List<String> toSortedCsvLines(List<DetectedError> detectedErrors) {
+        return detectedErrors.stream()
+                .map(DetectedError::toCSVString)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -1,23 +1,36 @@
 package net.hor1zont.csv.comparator.twofiles;
 
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import net.hor1zont.csv.comparator.storage.HashIndex;
+import net.hor1zont.csv.comparator.utils.CsvReportWriter;
 import net.hor1zont.csv.comparator.utils.CsvUtil;
 import net.hor1zont.csv.comparator.utils.CsvUtilTest;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FilesComparatorTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private FilesComparator filesComparator;
     private List<DetectedError> detectedErrors = new ArrayList<>();
 
@@ -36,8 +49,213 @@ public class FilesComparatorTest {
     @Test
     public void testComparatorValid() {
 
+        // Preparation
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        detectedErrors = filesComparator.compare(comparisonActions.getValuesComparisionRules());
+
+        // Verification
+        checkValidComparison();
+    }
+
+    @Test
+    public void testParallelComparatorValid() {
+
+        // Preparation
+        filesComparator = new ParallelFilesComparator(new ActionsOnDifference(), 3);
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        detectedErrors = filesComparator.compare(comparisonActions.getValuesComparisionRules());
+
+        // Verification: the same errors in the same order as in single thread comparison
+        checkValidComparison();
+    }
+
+    @Test
+    public void testParallelComparatorOfManyRanges() {
+
+        // Preparation: every line has a difference, some lines are only in one file
+        CsvHeader header = new CsvHeader(new String[]{"id", "value"});
+        Map<CompositeKey, Map<String, String>> fileA = new HashIndex<>();
+        Map<CompositeKey, Map<String, String>> fileB = new HashIndex<>();
+        for (int i = 0; i < ParallelFilesComparator.RANGE_SIZE * 40; i++) {
+            String id = String.valueOf(i);
+            if (i % 7 != 0) {
+                fileA.put(new CompositeKey(new String[]{id}, ""), new CsvRow(header, new String[]{id, "a" + i}));
+            }
+            if (i % 11 != 0) {
+                fileB.put(new CompositeKey(new String[]{id}, ""), new CsvRow(header, new String[]{id, "b" + i}));
+            }
+        }
+        ValuesComparisionRule[] rules = {new ValuesComparisionRule("value", "value")};
+        String[] keys = {"id"};
+        filesComparator.init("fileA.csv", "fileB.csv", keys, keys, "", fileA, fileB);
+        List<String> expectedErrors = toCsvStrings(filesComparator.compare(rules));
+        ParallelFilesComparator parallelFilesComparator = new ParallelFilesComparator(new ActionsOnDifference(), 3);
+        parallelFilesComparator.init("fileA.csv", "fileB.csv", keys, keys, "", fileA, fileB);
+        List<String> parallelErrors = toCsvStrings(parallelFilesComparator.compare(rules));
+        LimitingErrorSink limitingErrorSink = new LimitingErrorSink(
+                detectedErrors::add,
+                10,
+                LimitingErrorSink.NO_LIMIT,
+                LimitingErrorSink.NO_LIMIT,
+                LimitingErrorSink.NO_LIMIT
+        );
+        parallelFilesComparator.compare(rules, limitingErrorSink);
+
+        // Verification: the same errors in the same order, comparison is stopped soon after limit is reached
+        Assert.assertEquals(expectedErrors, parallelErrors);
+        Assert.assertEquals(expectedErrors.subList(0, 10), toCsvStrings(detectedErrors));
+        Assert.assertTrue(limitingErrorSink.getErrorsCount() < expectedErrors.size() / 2);
+    }
+
+    @Test
+    public void testComparedRowsCount() {
+
+        // Preparation
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        filesComparator.compare(comparisonActions.getValuesComparisionRules());
+        long comparedRowsCount = filesComparator.getComparedRowsCount();
+        filesComparator = new ParallelFilesComparator(new ActionsOnDifference(), 3);
+        comparisonActions = prepareValidComparison();
+        filesComparator.compare(comparisonActions.getValuesComparisionRules());
+
+        // Verification: lines with the same key in both files are compared once in any thread
+        Assert.assertEquals(4, comparedRowsCount);
+        Assert.assertEquals(comparedRowsCount, filesComparator.getComparedRowsCount());
+    }
+
+    @Test
+    public void testRuleProfiling() {
+
+        // Preparation
+        RuleProfiler ruleProfiler = new RuleProfiler();
+        filesComparator.setRuleProfiler(ruleProfiler);
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        detectedErrors = filesComparator.compare(comparisonActions.getValuesComparisionRules());
+
+        // Verification: profiling does not change result, every rule is evaluated for every compared pair of lines
+        checkValidComparison();
+        List<RuleProfiler.RuleProfile> profiles = ruleProfiler.getProfiles();
+        Assert.assertEquals(2, profiles.size());
+        for (RuleProfiler.RuleProfile profile : profiles) {
+            Assert.assertEquals(4, profile.getEvaluations());
+            Assert.assertTrue(profile.getExtractionNanos() > 0);
+        }
+        Assert.assertTrue(profiles.get(0).getTotalNanos() >= profiles.get(1).getTotalNanos());
+    }
+
+    @Test
+    public void testHashIndexComparatorValid() {
+
+        // Preparation
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        List<String> expectedErrors = toSortedCsvStrings(
+                filesComparator.compare(comparisonActions.getValuesComparisionRules())
+        );
+        List<DetectedError> loadingErrors = new ArrayList<>();
+        filesComparator.init(
+                comparisonActions.getNameFileA(),
+                comparisonActions.getNameFileB(),
+                comparisonActions.getKeysFileA(),
+                comparisonActions.getKeysFileB(),
+                comparisonActions.getTestFolder(),
+                csvUtil.convertFileToHashIndex(
+                        comparisonActions.getNameFileA(),
+                        comparisonActions.getKeysFileA(),
+                        comparisonActions.getKeySeparatorFileA(),
+                        comparisonActions.getCharsetFileA(),
+                        loadingErrors,
+                        null
+                ),
+                csvUtil.convertFileToHashIndex(
+                        comparisonActions.getNameFileB(),
+                        comparisonActions.getKeysFileB(),
+                        comparisonActions.getKeySeparatorFileB(),
+                        comparisonActions.getCharsetFileB(),
+                        loadingErrors,
+                        null
+                )
+        );
+        detectedErrors = filesComparator.compare(comparisonActions.getValuesComparisionRules());
+
+        // Verification: the same errors, but in order of lines in files
+        Assert.assertTrue(loadingErrors.isEmpty());
+        Assert.assertEquals(expectedErrors, toSortedCsvStrings(detectedErrors));
+    }
+
+    @Test
+    public void testNotFoundErrorsInReport() throws IOException {
+
+        // Preparation: report writer formats every error as soon as it is added
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv");
+        try (CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), null, false)) {
+            filesComparator.compare(comparisonActions.getValuesComparisionRules(), report);
+        }
+        List<String> lines = Files.readAllLines(reportFile.toPath());
+
+        // Verification: files and key columns are filled before error is reported
+        Assert.assertEquals(7, lines.size());
+        Assert.assertEquals(
+                "4,primary key is not found in file B,99034234234,,[phone],fileA.csv,,,[Mobile Phone],fileV.csv,",
+                lines.get(4)
+        );
+        Assert.assertEquals(
+                "5,primary key is not found in file A,,,[phone],fileA.csv,11111111111,,[Mobile Phone],fileV.csv,",
+                lines.get(5)
+        );
+    }
+
+    @Test
+    public void testComparisonIsStoppedOnLimit() {
+
+        // Preparation
+        TwoFilesComparisonActions comparisonActions = prepareValidComparison();
+        LimitingErrorSink limitingErrorSink = new LimitingErrorSink(
+                detectedErrors::add,
+                2,
+                LimitingErrorSink.NO_LIMIT,
+                LimitingErrorSink.NO_LIMIT,
+                LimitingErrorSink.NO_LIMIT
+        );
+        filesComparator.compare(comparisonActions.getValuesComparisionRules(), limitingErrorSink);
+
+        // Verification: comparison is stopped after the line with the second error, only 2 errors are reported
+        Assert.assertTrue(limitingErrorSink.isComplete());
+        Assert.assertEquals(3, limitingErrorSink.getErrorsCount());
+        Assert.assertEquals(2, detectedErrors.size());
+        checkDetectedError("values are not the expected,134123333,Alice.Jame,[name, surname],fileA.csv,134123333,Alice.James,[Full Name],fileV.csv,", 0);
+        checkDetectedError("values are not the expected,23412323123,Max.Kooks,[name, surname],fileA.csv,23412323123,Max.Kook,[Full Name],fileV.csv,", 1);
+    }
+
+    @Test
+    public void testColumnIsNotFoundBeforeComparison() {
+
         // Preparation
         TwoFilesComparisonActions comparisonActions = prepareTest(
+                mockTwoFilesComparisonRule(
+                        "fileA.csv",
+                        "fileV.csv",
+                        new String[]{"phone"},
+                        new String[]{"Mobile Phone"},
+                        new ValuesComparisionRule(new String[]{"name", "unknown"}, new String[]{"Full Name"})
+                )
+        );
+        try {
+            filesComparator.compare(comparisonActions.getValuesComparisionRules());
+            Assert.fail("Comparison should fail if column is not found");
+        } catch (IllegalStateException ex) {
+
+            // Verification
+            Assert.assertTrue(ex.getCause() instanceof ColumnNotFoundException);
+            Assert.assertEquals(
+                    "Column [unknown] is not found in title line [id, name, surname, title, phone]",
+                    ex.getCause().getMessage()
+            );
+        }
+    }
+
+    private TwoFilesComparisonActions prepareValidComparison() {
+        return prepareTest(
                 mockTwoFilesComparisonRule(
                         "fileA.csv",
                         "fileV.csv",
@@ -54,9 +272,9 @@ public class FilesComparatorTest {
                                 })
                 )
         );
-        detectedErrors = filesComparator.compare(comparisonActions.getValuesComparisionRules());
+    }
 
-        // Verification
+    private void checkValidComparison() {
         Assert.assertEquals(6, detectedErrors.size());
         checkDetectedError("values are not the expected,134123333,Alice.Jame,[name, surname],fileA.csv,134123333,Alice.James,[Full Name],fileV.csv,", 0);
         checkDetectedError("values are not the expected,23412323123,Max.Kooks,[name, surname],fileA.csv,23412323123,Max.Kook,[Full Name],fileV.csv,", 1);
@@ -66,6 +284,20 @@ public class FilesComparatorTest {
         checkDetectedError("primary key is not found in file A,,,[phone],fileA.csv,99034234233,,[Mobile Phone],fileV.csv,", 5);
     }
 
+    private static List<String> toCsvStrings(List<DetectedError> detectedErrors) {
+        List<String> csvStrings = new ArrayList<>();
+        for (DetectedError detectedError : detectedErrors) {
+            csvStrings.add(detectedError.toCSVString());
+        }
+        return csvStrings;
+    }
+
+    private static List<String> toSortedCsvStrings(List<DetectedError> detectedErrors) {
+        List<String> csvStrings = toCsvStrings(detectedErrors);
+        Collections.sort(csvStrings);
+        return csvStrings;
+    }
+
     private void checkDetectedError(String csvRepresentation, int index) {
         DetectedError detectedError = detectedErrors.get(index);
         Assert.assertEquals(
@@ -79,7 +311,7 @@ public class FilesComparatorTest {
 
         List<DetectedError> detectedErrors = new ArrayList<>();
 
-        Map<String, Map<String, String>> fileA = csvUtil.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> fileA = csvUtil.convertFileToFormattedMap(
                 comparisonActions.getNameFileA(),
                 comparisonActions.getKeysFileA(),
                 comparisonActions.getKeySeparatorFileA(),
@@ -88,7 +320,7 @@ public class FilesComparatorTest {
                 detectedErrors
 
         );
-        Map<String, Map<String, String>> fileB = csvUtil.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> fileB = csvUtil.convertFileToFormattedMap(
                 comparisonActions.getNameFileB(),
                 comparisonActions.getKeysFileB(),
                 comparisonActions.getKeySeparatorFileB(),
@@ -0,0 +1,52 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.storage.CsvHeader;
+import net.hor1zont.csv.comparator.storage.CsvRow;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JoinedValuesTest {
+
+    private static final CsvHeader HEADER_A = new CsvHeader(new String[]{"name", "surname", "title"});
+    private static final CsvHeader HEADER_B = new CsvHeader(new String[]{"Full Name", "first", "second"});
+
+    @Test
+    public void testSeveralColumnsWithOneColumn() {
+        CsvRow rowA = new CsvRow(HEADER_A, new String[]{"Alice", "James", "staff"});
+
+        // Verification
+        checkComparison(JoinedValues.EQUAL, rowA, new int[]{0, 1}, ".", "Alice.James");
+        checkComparison(JoinedValues.NOT_EQUAL, rowA, new int[]{0, 1}, ".", "Alice.Jame");
+        checkComparison(JoinedValues.NOT_EQUAL, rowA, new int[]{0, 1}, ".", "Alice James");
+        checkComparison(JoinedValues.NOT_EQUAL, rowA, new int[]{0, 1}, ".", "Alic.eJames");
+        checkComparison(JoinedValues.EQUAL, rowA, new int[]{0, 1}, "", "AliceJames");
+        checkComparison(JoinedValues.EQUAL, rowA, new int[]{2}, " ", "staff");
+    }
+
+    @Test
+    public void testSeveralColumnsOnBothSides() {
+        CsvRow rowA = new CsvRow(HEADER_A, new String[]{"a_b", "c", ""});
+        CsvRow rowB = new CsvRow(HEADER_B, new String[]{"", "a", "b_c"});
+
+        // Verification
+        Assert.assertEquals(JoinedValues.EQUAL,
+                JoinedValues.compare(rowA, new int[]{0, 1}, "_", rowB, new int[]{1, 2}, "_"));
+        Assert.assertEquals(JoinedValues.EQUAL,
+                JoinedValues.compare(rowA, new int[]{2, 0, 1}, "_", rowB, new int[]{0, 1, 2}, "_"));
+        Assert.assertEquals(JoinedValues.NOT_EQUAL,
+                JoinedValues.compare(rowA, new int[]{0, 1}, "_", rowB, new int[]{1, 2}, "-"));
+    }
+
+    @Test
+    public void testAbsentValue() {
+        CsvRow rowA = new CsvRow(HEADER_A, new String[]{"Alice"});
+
+        // Verification
+        checkComparison(JoinedValues.UNKNOWN, rowA, new int[]{0, 1}, ".", "Alice.James");
+    }
+
+    private static void checkComparison(int expected, CsvRow rowA, int[] columnsA, String separatorA, String valueB) {
+        CsvRow rowB = new CsvRow(HEADER_B, new String[]{valueB});
+        Assert.assertEquals(expected, JoinedValues.compare(rowA, columnsA, separatorA, rowB, new int[]{0}, " "));
+    }
+}
@@ -0,0 +1,75 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LimitingErrorSinkTest {
+
+    private static final int NO_LIMIT = LimitingErrorSink.NO_LIMIT;
+
+    @Test
+    public void testLimitsPerReasonAndRule() {
+        List<DetectedError> reported = new ArrayList<>();
+        ValuesComparisionRule rule1 = new ValuesComparisionRule("a", "b");
+        ValuesComparisionRule rule2 = new ValuesComparisionRule("c", "d");
+        LimitingErrorSink sink = new LimitingErrorSink(reported::add, NO_LIMIT, 2, 3, NO_LIMIT);
+        for (int i = 0; i < 5; i++) {
+            sink.add(new DetectedError("values are not the expected").setRule(rule1).setValueA("1-" + i));
+            sink.add(new DetectedError("values are not the expected").setRule(rule2).setValueA("2-" + i));
+            sink.add(new DetectedError("primary key is not found in file B").setPrimaryKeyA(String.valueOf(i)));
+        }
+        sink.close();
+
+        // Verification: 2 errors of every rule (3 of the reason), 3 errors of other reason
+        Assert.assertFalse(sink.isComplete());
+        Assert.assertEquals(15, sink.getErrorsCount());
+        Assert.assertEquals(Long.valueOf(10), sink.getErrorsCountByReason().get("values are not the expected"));
+        Assert.assertEquals(6, reported.size());
+        Assert.assertEquals("values are not the expected,,1-0,null,,,,null,,", reported.get(0).toCSVString());
+        Assert.assertEquals("values are not the expected,,2-0,null,,,,null,,", reported.get(1).toCSVString());
+        Assert.assertEquals("values are not the expected,,1-1,null,,,,null,,", reported.get(3).toCSVString());
+        Assert.assertEquals("primary key is not found in file B,2,,null,,,,null,,", reported.get(5).toCSVString());
+    }
+
+    @Test
+    public void testTotalLimit() {
+        List<DetectedError> reported = new ArrayList<>();
+        LimitingErrorSink sink = new LimitingErrorSink(reported::add, 3, NO_LIMIT, NO_LIMIT, NO_LIMIT);
+        for (int i = 0; i < 2; i++) {
+            sink.add(new DetectedError("primary key is not found in file A"));
+        }
+        Assert.assertFalse(sink.isComplete());
+        sink.add(new DetectedError("primary key is not found in file A"));
+        sink.add(new DetectedError("primary key is not found in file A"));
+
+        // Verification
+        Assert.assertTrue(sink.isComplete());
+        Assert.assertEquals(3, reported.size());
+        Assert.assertEquals(4, sink.getErrorsCount());
+    }
+
+    @Test
+    public void testSampling() {
+        List<DetectedError> reported = new ArrayList<>();
+        LimitingErrorSink sink = new LimitingErrorSink(reported::add, NO_LIMIT, NO_LIMIT, NO_LIMIT, 10);
+        for (int i = 0; i < 1000; i++) {
+            sink.add(new DetectedError("primary key is not found in file A").setPrimaryKeyB(String.valueOf(i)));
+        }
+        Assert.assertTrue(reported.isEmpty());
+        sink.close();
+
+        // Verification: sample is reported in order of detection
+        Assert.assertEquals(10, reported.size());
+        Assert.assertEquals(1000, sink.getErrorsCount());
+        int previousKey = -1;
+        for (DetectedError detectedError : reported) {
+            int key = Integer.parseInt(detectedError.toCSVString().split(",")[5]);
+            Assert.assertTrue(key > previousKey);
+            previousKey = key;
+        }
+        Assert.assertTrue("sample should not be the first errors", previousKey >= 10);
+    }
+}
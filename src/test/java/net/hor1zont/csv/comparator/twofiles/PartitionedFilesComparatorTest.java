@@ -0,0 +1,84 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.CsvUtilTest;
+import net.hor1zont.csv.comparator.utils.HashPartitioner;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionedFilesComparatorTest {
+
+    @Spy
+    private CsvUtil csvUtil;
+
+    @Before
+    public void setup() throws IOException {
+        CsvUtilTest.mockCsvUtil(
+                csvUtil,
+                getClass()
+        );
+    }
+
+    @Test
+    public void testSameErrorsAsInMemoryComparison() {
+        List<String> inMemoryErrors = compareInMemory();
+
+        List<DetectedError> partitionedErrors = createPartitionedFilesComparator(3, 1)
+                .compare(FileComparisonTestUtil.rules());
+
+        // Verification
+        Assert.assertEquals(8, inMemoryErrors.size());
+        Assert.assertEquals(inMemoryErrors, FileComparisonTestUtil.toSortedCsvLines(partitionedErrors));
+    }
+
+    @Test
+    public void testParallelComparisonHasSameOrder() {
+        List<DetectedError> partitionedErrors = createPartitionedFilesComparator(4, 1)
+                .compare(FileComparisonTestUtil.rules());
+        List<DetectedError> parallelErrors = createPartitionedFilesComparator(4, 3)
+                .compare(FileComparisonTestUtil.rules());
+
+        // Verification
+        Assert.assertEquals(
+                FileComparisonTestUtil.toCsvLines(partitionedErrors),
+                FileComparisonTestUtil.toCsvLines(parallelErrors)
+        );
+        Assert.assertEquals(compareInMemory(), FileComparisonTestUtil.toSortedCsvLines(parallelErrors));
+    }
+
+    @Test
+    public void testEstimatePartitionsCount() {
+        Assert.assertEquals(1, HashPartitioner.estimatePartitionsCount(100, 1_000_000, 1));
+        Assert.assertEquals(16, HashPartitioner.estimatePartitionsCount(1_000_000, 1_000_000, 1));
+        Assert.assertEquals(64, HashPartitioner.estimatePartitionsCount(1_000_000, 1_000_000, 4));
+        Assert.assertEquals(
+                HashPartitioner.MAX_PARTITIONS_COUNT,
+                HashPartitioner.estimatePartitionsCount(Long.MAX_VALUE / 16, 1_000_000, 1)
+        );
+    }
+
+    private List<String> compareInMemory() {
+        return FileComparisonTestUtil.toSortedCsvLines(
+                FileComparisonTestUtil.compareInMemory(csvUtil, "sorted-fileA.csv", "sorted-fileV.csv")
+        );
+    }
+
+    private PartitionedFilesComparator createPartitionedFilesComparator(int partitionsCount, int threadsCount) {
+        PartitionedFilesComparator partitionedFilesComparator = new PartitionedFilesComparator(
+                new ActionsOnDifference(),
+                csvUtil,
+                new HashPartitioner(csvUtil, null),
+                partitionsCount,
+                threadsCount
+        );
+        return FileComparisonTestUtil.init(partitionedFilesComparator, "sorted-fileA.csv", "sorted-fileV.csv", null);
+    }
+}
@@ -0,0 +1,64 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.CsvUtilTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProbeFilesComparatorTest {
+
+    @Spy
+    private CsvUtil csvUtil;
+
+    @Before
+    public void setup() throws IOException {
+        CsvUtilTest.mockCsvUtil(
+                csvUtil,
+                getClass()
+        );
+    }
+
+    @Test
+    public void testSameErrorsAsInMemoryComparison() {
+
+        // Preparation
+        List<String> inMemoryErrors = FileComparisonTestUtil.toSortedCsvLines(
+                FileComparisonTestUtil.compareInMemory(csvUtil, "fileA.csv", "fileV.csv")
+        );
+
+        ValuesComparisionRule[] rules = FileComparisonTestUtil.rules();
+        List<DetectedError> probeErrors = createProbeFilesComparator(null, true).compare(rules);
+        List<DetectedError> probeErrorsWithComparator = createProbeFilesComparator(String::compareTo, true)
+                .compare(rules);
+        List<DetectedError> probeErrorsOfFileA = createProbeFilesComparator(null, false).compare(rules);
+
+        // Verification: lines of build file which are not found in probe file are reported at the end
+        Assert.assertEquals(6, inMemoryErrors.size());
+        Assert.assertEquals(inMemoryErrors, FileComparisonTestUtil.toSortedCsvLines(probeErrors));
+        Assert.assertEquals(inMemoryErrors, FileComparisonTestUtil.toSortedCsvLines(probeErrorsWithComparator));
+        Assert.assertEquals(inMemoryErrors, FileComparisonTestUtil.toSortedCsvLines(probeErrorsOfFileA));
+        Assert.assertEquals(
+                "primary key is not found in file B",
+                probeErrors.get(probeErrors.size() - 1).getReason()
+        );
+    }
+
+    private ProbeFilesComparator createProbeFilesComparator(Comparator<String> keyComparator, boolean buildSideA) {
+        ProbeFilesComparator probeFilesComparator = new ProbeFilesComparator(new ActionsOnDifference(), csvUtil) {
+            @Override
+            protected boolean isBuildSideA() {
+                return buildSideA;
+            }
+        };
+        return FileComparisonTestUtil.init(probeFilesComparator, "fileA.csv", "fileV.csv", keyComparator);
+    }
+}
@@ -0,0 +1,78 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class RunMetricsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPhases() {
+        RunMetrics metrics = new RunMetrics();
+        metrics.addPhase(ComparisonMetrics.Phase.PARSE_FILE_A, TimeUnit.MILLISECONDS.toNanos(500), 1000, 64_000);
+        metrics.addPhase(ComparisonMetrics.Phase.COMPARE, 0, 1000, 128_000);
+
+        // Verification
+        List<RunMetrics.PhaseMetrics> phases = metrics.getPhases();
+        Assert.assertEquals(2, phases.size());
+        Assert.assertEquals(ComparisonMetrics.Phase.PARSE_FILE_A, phases.get(0).getPhase());
+        Assert.assertEquals(500, phases.get(0).getWallTimeMillis());
+        Assert.assertEquals(2000, phases.get(0).getRowsPerSecond());
+        Assert.assertEquals(128_000, phases.get(0).getBytesPerSecond());
+        Assert.assertTrue(phases.get(0).getPeakHeapBytes() > 0);
+        Assert.assertEquals(0, phases.get(1).getRowsPerSecond());
+    }
+
+    @Test
+    public void testJsonFile() throws IOException {
+        RunMetrics metrics = new RunMetrics();
+        ValuesComparisionRule rule = new ValuesComparisionRule("name", "Full \"Name\"");
+        metrics.addPhase(ComparisonMetrics.Phase.COMPARE, TimeUnit.SECONDS.toNanos(2), 10, 20);
+        metrics.addRuleEvaluations(rule, 10);
+        metrics.addRuleEvaluations(rule, 5);
+        File metricsFile = new File(temporaryFolder.getRoot(), "report.csv.metrics.json");
+        metrics.writeToJsonFile(metricsFile.getPath(), StandardCharsets.UTF_8);
+
+        // Verification
+        Assert.assertEquals(Long.valueOf(15), metrics.getRuleEvaluations().get(rule));
+        String json = new String(Files.readAllBytes(metricsFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(json, json.contains("{\"phase\": \"COMPARE\", \"wallTimeMillis\": 2000, \"rows\": 10, "
+                + "\"rowsPerSecond\": 5, \"bytes\": 20, \"bytesPerSecond\": 10, \"peakHeapBytes\": "));
+        Assert.assertTrue(json, json.contains("{\"rule\": \"[name] - [Full \\\"Name\\\"]\", \"evaluations\": 15}"));
+    }
+
+    @Test
+    public void testMostExpensiveRules() {
+        RunMetrics metrics = new RunMetrics();
+        ValuesComparisionRule nameRule = new ValuesComparisionRule("name", "Full Name");
+        ValuesComparisionRule titleRule = new ValuesComparisionRule("title", "position");
+        ValuesComparisionRule phoneRule = new ValuesComparisionRule("phone", "Mobile Phone");
+        metrics.addRuleEvaluations(nameRule, 100);
+        metrics.addRuleEvaluations(titleRule, 100);
+        metrics.addRuleEvaluations(phoneRule, 100);
+        metrics.addRuleProfile(nameRule, 1000, 500);
+        metrics.addRuleProfile(titleRule, 200, 9000);
+
+        // Verification: not profiled rule is not reported
+        List<RunMetrics.RuleMetrics> mostExpensiveRules = metrics.getMostExpensiveRules(5);
+        Assert.assertEquals(2, mostExpensiveRules.size());
+        Assert.assertSame(titleRule, mostExpensiveRules.get(0).getRule());
+        Assert.assertEquals(9200, mostExpensiveRules.get(0).getTotalNanos());
+        Assert.assertSame(nameRule, mostExpensiveRules.get(1).getRule());
+        Assert.assertEquals(1, metrics.getMostExpensiveRules(1).size());
+        Assert.assertTrue(metrics.toJson(), metrics.toJson().contains(
+                "{\"rule\": \"[name] - [Full Name]\", \"evaluations\": 100, \"extractionNanos\": 1000, "
+                        + "\"validationNanos\": 500}"));
+    }
+}
@@ -0,0 +1,92 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import net.hor1zont.csv.comparator.utils.CsvUtil;
+import net.hor1zont.csv.comparator.utils.CsvUtilTest;
+import net.hor1zont.csv.comparator.utils.ExternalCsvSorter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SortedFilesComparatorTest {
+
+    @Spy
+    private CsvUtil csvUtil;
+
+    @Before
+    public void setup() throws IOException {
+        CsvUtilTest.mockCsvUtil(
+                csvUtil,
+                getClass()
+        );
+    }
+
+    @Test
+    public void testSameErrorsAsInMemoryComparison() {
+
+        // Preparation
+        List<DetectedError> inMemoryErrors = FileComparisonTestUtil.compareInMemory(
+                csvUtil, "sorted-fileA.csv", "sorted-fileV.csv"
+        );
+
+        SortedFilesComparator sortedFilesComparator = createSortedFilesComparator("sorted-fileA.csv");
+        List<DetectedError> sortedErrors = sortedFilesComparator.compare(FileComparisonTestUtil.rules());
+
+        // Verification
+        Assert.assertEquals(8, inMemoryErrors.size());
+        Assert.assertEquals(
+                FileComparisonTestUtil.toSortedCsvLines(inMemoryErrors),
+                FileComparisonTestUtil.toSortedCsvLines(sortedErrors)
+        );
+        Assert.assertEquals(
+                "Duplication is found: value is ignored,,[134123333],[phone],sorted-fileA.csv,,,null,,",
+                sortedErrors.get(1).toCSVString()
+        );
+        Assert.assertEquals(
+                "primary key is not found in file A,,,[phone],sorted-fileA.csv,134123333,,[Mobile Phone],sorted-fileV.csv,",
+                sortedErrors.get(3).toCSVString()
+        );
+    }
+
+    @Test
+    public void testExternalSortSameErrorsAsInMemoryComparison() {
+
+        // Preparation
+        List<DetectedError> inMemoryErrors = FileComparisonTestUtil.compareInMemory(csvUtil, "fileA.csv", "fileV.csv");
+
+        ExternalSortFilesComparator externalSortFilesComparator = new ExternalSortFilesComparator(
+                new ActionsOnDifference(),
+                csvUtil,
+                new ExternalCsvSorter(csvUtil, 2, 2, null)
+        );
+        FileComparisonTestUtil.init(externalSortFilesComparator, "fileA.csv", "fileV.csv", null);
+        List<DetectedError> sortedErrors = externalSortFilesComparator.compare(FileComparisonTestUtil.rules());
+
+        // Verification
+        Assert.assertEquals(6, inMemoryErrors.size());
+        Assert.assertEquals(
+                FileComparisonTestUtil.toSortedCsvLines(inMemoryErrors),
+                FileComparisonTestUtil.toSortedCsvLines(sortedErrors)
+        );
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotSortedFile() {
+        createSortedFilesComparator("fileA.csv").compare(FileComparisonTestUtil.rules());
+    }
+
+    private SortedFilesComparator createSortedFilesComparator(String fileA) {
+        return FileComparisonTestUtil.init(
+                new SortedFilesComparator(new ActionsOnDifference(), csvUtil),
+                fileA,
+                "sorted-fileV.csv",
+                null
+        );
+    }
+}
@@ -0,0 +1,131 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TwoFilesComparisonActionsTest {
+
+    @Test
+    public void testConcurrentLoadReportsErrorsInOrderOfFiles() throws URISyntaxException {
+
+        // Preparation: both files have duplicated keys
+        String baseFolder = baseFolder();
+        List<String> sequentialErrors = toCsvStrings(createComparison(false).initComparision(baseFolder));
+        List<String> concurrentErrors = toCsvStrings(createComparison(true).initComparision(baseFolder));
+
+        // Verification: errors of file A are reported before errors of file B in both cases
+        Assert.assertEquals(sequentialErrors, concurrentErrors);
+        Assert.assertEquals(6, concurrentErrors.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(concurrentErrors.get(i).contains("],[id],"));
+        }
+        for (int i = 4; i < 6; i++) {
+            Assert.assertTrue(concurrentErrors.get(i).contains("],[id, name],"));
+        }
+    }
+
+    @Test
+    public void testMissingColumnIsReportedOnce() throws URISyntaxException {
+
+        // Preparation: exception is not thrown for missing column, so comparison is continued
+        List<String> missingColumns = new ArrayList<>();
+        ActionsOnDifference actionsOnDifference = new ActionsOnDifference() {
+
+            @Override
+            public void columnIsNotFound(DetectedError detectedError, ColumnNotFoundException ex) {
+                // error is reported for every compared line
+            }
+
+            @Override
+            public void columnIsNotFoundInHeader(ColumnNotFoundException ex) {
+                missingColumns.add(ex.getMessage());
+            }
+        };
+        TwoFilesComparisonActions comparison = createComparison(
+                false,
+                new ValuesComparisionRule("pas", "password"),
+                actionsOnDifference
+        );
+        comparison.initComparision(baseFolder());
+        comparison.checkFiles();
+
+        // Verification: column of file B is reported on loading of file B and it is not reported by comparator
+        Assert.assertEquals(1, missingColumns.size());
+        Assert.assertTrue(missingColumns.get(0).contains("[password]"));
+    }
+
+    private String baseFolder() throws URISyntaxException {
+        return new File(getClass().getResource("/duplicated-lines-file.csv").toURI()).getParent() + File.separator;
+    }
+
+    private static List<String> toCsvStrings(List<DetectedError> detectedErrors) {
+        List<String> csvStrings = new ArrayList<>();
+        for (DetectedError detectedError : detectedErrors) {
+            csvStrings.add(detectedError.toCSVString());
+        }
+        return csvStrings;
+    }
+
+    private static TwoFilesComparisonActions createComparison(boolean concurrentLoad) {
+        return createComparison(concurrentLoad, new ValuesComparisionRule("pas", "pas"), new ActionsOnDifference());
+    }
+
+    private static TwoFilesComparisonActions createComparison(
+            boolean concurrentLoad,
+            ValuesComparisionRule rule,
+            ActionsOnDifference actionsOnDifference
+    ) {
+        return new TwoFilesComparisonActions() {
+
+            @Override
+            public boolean isConcurrentLoadEnabled() {
+                return concurrentLoad;
+            }
+
+            @Override
+            public String getNameFileA() {
+                return "duplicated-lines-file.csv";
+            }
+
+            @Override
+            public String getNameFileB() {
+                return "duplicated-lines-file.csv";
+            }
+
+            @Override
+            public String getTestFolder() {
+                return "";
+            }
+
+            @Override
+            public String[] getKeysFileA() {
+                return new String[]{"id"};
+            }
+
+            @Override
+            public String[] getKeysFileB() {
+                return new String[]{"id", "name"};
+            }
+
+            @Override
+            public ValuesComparisionRule[] getValuesComparisionRules() {
+                return new ValuesComparisionRule[]{rule};
+            }
+
+            @Override
+            public ActionsOnDifference getActionsOnDifference() {
+                return actionsOnDifference;
+            }
+
+            @Override
+            public String getReportFilename() {
+                return "";
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package net.hor1zont.csv.comparator.twofiles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ValuesComparisionRuleTest {
+
+    private final ValuesComparisionRule rule = new ValuesComparisionRule(new String[]{"name", "surname"}, "Full Name")
+            .setValueExtractorA(new ValueExtractor("."));
+
+    @Test
+    public void testEqualValues() throws ColumnNotFoundException {
+        Map<String, String> rowA = row("name", "Alice", "surname", "James");
+        ComparisonResult result = rule.evaluate(rowA, row("Full Name", "Alice.James"));
+
+        // Verification
+        Assert.assertTrue(result.isEqual());
+        Assert.assertEquals("Alice.James", result.getValueA());
+        Assert.assertEquals("Alice.James", result.getValueB());
+    }
+
+    @Test
+    public void testNotEqualValues() throws ColumnNotFoundException {
+        Map<String, String> rowA = row("name", "Alice", "surname", "James");
+        Map<String, String> rowB = row("Full Name", "Alice James");
+        ComparisonResult result = rule.evaluate(rowA, rowB);
+
+        // Verification
+        Assert.assertFalse(result.isEqual());
+        Assert.assertEquals("Alice.James", result.getValueA());
+        Assert.assertEquals("Alice James", result.getValueB());
+        Assert.assertEquals("Alice.James", rule.extractValueA(rowA));
+        Assert.assertEquals("Alice James", rule.extractValueB(rowB));
+    }
+
+    @Test
+    public void testMissingColumn() {
+        Map<String, String> rowA = row("name", "Alice");
+        Map<String, String> rowB = row("Full Name", "Alice.James");
+
+        // Verification
+        try {
+            rule.evaluate(rowA, rowB);
+            Assert.fail("Column surname should not be found");
+        } catch (ColumnNotFoundException ex) {
+            Assert.assertTrue(ex.getMessage().contains("key [surname] is not found"));
+        }
+        try {
+            rule.extractValueB(rowA);
+            Assert.fail("Column Full Name should not be found");
+        } catch (ColumnNotFoundException ex) {
+            Assert.assertTrue(ex.getMessage().contains("key [Full Name] is not found"));
+        }
+    }
+
+    @Test
+    public void testRuleIsNotChanged() throws ColumnNotFoundException {
+        rule.init(row("name", "Bob", "surname", "Smith"), row("Full Name", "Bob.Smith"));
+        rule.evaluate(row("name", "Alice", "surname", "James"), row("Full Name", "Alice James"));
+
+        // Verification: lines set with init are still used by methods without arguments
+        Assert.assertEquals("Bob.Smith", rule.extractValueA());
+        Assert.assertEquals("Bob.Smith", rule.extractValueB());
+    }
+
+    private static Map<String, String> row(String... columnsAndValues) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            row.put(columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return row;
+    }
+}
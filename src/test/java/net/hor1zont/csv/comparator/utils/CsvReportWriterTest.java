@@ -0,0 +1,145 @@
+package net.hor1zont.csv.comparator.utils;
+
+import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnmappableCharacterException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+public class CsvReportWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSameAsReportOfList() throws IOException {
+
+        // Preparation
+        List<DetectedError> detectedErrors = Arrays.asList(
+                new DetectedError("primary key is not found in file B").setPrimaryKeyA("11"),
+                new DetectedError("values are not the expected").setValueA("a").setValueB("b"),
+                new DetectedError("primary key is not found in file B").setPrimaryKeyA("12")
+        );
+        File expectedFile = new File(temporaryFolder.getRoot(), "expected.csv");
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv");
+        CsvUtil.writeDetectedErrorsToCsvFile(expectedFile.getPath(), detectedErrors, null);
+        try (CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), null, false)) {
+            detectedErrors.forEach(report::add);
+
+            // Verification
+            Assert.assertEquals(3, report.getErrorsCount());
+            Assert.assertEquals(Long.valueOf(2), report.getErrorsCountByReason().get("primary key is not found in file B"));
+            Assert.assertEquals(Long.valueOf(1), report.getErrorsCountByReason().get("values are not the expected"));
+        }
+        Assert.assertEquals(Files.readAllLines(expectedFile.toPath()), Files.readAllLines(reportFile.toPath()));
+    }
+
+    @Test
+    public void testManyBlocks() throws IOException {
+
+        // Preparation: lines with not ASCII chars take several blocks
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            detectedErrors.add(new DetectedError("values are not the expected")
+                    .setPrimaryKeyA(String.valueOf(i))
+                    .setValueA("\u00c4pfel-" + i)
+                    .setValueB("\u042f\u0431\u043b\u043e\u043a\u043e-" + i)
+                    .setTitleColumnA(new String[]{"name", "surname"}));
+        }
+        File expectedFile = new File(temporaryFolder.getRoot(), "expected.csv");
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv");
+        CsvUtil.writeDetectedErrorsToCsvFile(expectedFile.getPath(), detectedErrors, StandardCharsets.UTF_8);
+        try (CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), StandardCharsets.UTF_8, false)) {
+            detectedErrors.forEach(report::add);
+        }
+
+        // Verification
+        Assert.assertEquals(
+                Files.readAllLines(expectedFile.toPath(), StandardCharsets.UTF_8),
+                Files.readAllLines(reportFile.toPath(), StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testCompressedReport() throws IOException {
+
+        // Preparation
+        List<DetectedError> detectedErrors = Arrays.asList(
+                new DetectedError("primary key is not found in file B").setPrimaryKeyA("11"),
+                new DetectedError("values are not the expected").setValueA("a").setValueB("b")
+        );
+        File expectedFile = new File(temporaryFolder.getRoot(), "expected.csv.gz");
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv.gz");
+        CsvUtil.writeDetectedErrorsToCsvFile(expectedFile.getPath(), detectedErrors, null);
+        try (CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), null, false)) {
+            detectedErrors.forEach(report::add);
+        }
+
+        // Verification
+        Assert.assertTrue(CsvUtil.isCompressed(reportFile.toPath()));
+        Assert.assertEquals(readGzipLines(expectedFile), readGzipLines(reportFile));
+        Assert.assertEquals(3, readGzipLines(reportFile).size());
+    }
+
+    @Test
+    public void testWrittenBytes() {
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv");
+        CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), StandardCharsets.UTF_8, false);
+        for (int i = 0; i < 5000; i++) {
+            report.add(new DetectedError("values are not the expected").setValueA("\u00c4pfel-" + i).setValueB("b"));
+        }
+        report.close();
+
+        // Verification
+        Assert.assertEquals(reportFile.length(), report.getWrittenBytes());
+        Assert.assertTrue(report.getWriteTimeNanos() > 0);
+    }
+
+    @Test
+    public void testUnmappableValue() {
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv");
+        CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), StandardCharsets.ISO_8859_1, false);
+        report.add(new DetectedError("values are not the expected").setValueA("\u042f\u0431").setValueB("b"));
+        try {
+            report.close();
+            Assert.fail("Value which cannot be written in charset of report should not be replaced");
+        } catch (IllegalStateException ex) {
+
+            // Verification
+            Assert.assertTrue(ex.getCause() instanceof UnmappableCharacterException);
+        }
+    }
+
+    @Test
+    public void testNoReportWithoutErrors() {
+        File reportFile = new File(temporaryFolder.getRoot(), "report.csv");
+        CsvReportWriter report = new CsvReportWriter(reportFile.getPath(), null, false);
+        report.close();
+
+        // Verification
+        Assert.assertEquals(0, report.getErrorsCount());
+        Assert.assertEquals(Collections.emptyMap(), report.getErrorsCountByReason());
+        Assert.assertFalse(reportFile.exists());
+    }
+
+    private static List<String> readGzipLines(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file.toPath())), CsvUtil.DEFAULT_FILE_CHARSET))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
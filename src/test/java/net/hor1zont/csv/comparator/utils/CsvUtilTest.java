@@ -1,5 +1,6 @@
 package net.hor1zont.csv.comparator.utils;
 
+import net.hor1zont.csv.comparator.storage.CompositeKey;
 import net.hor1zont.csv.comparator.twofiles.DetectedError;
 import org.junit.Assert;
 import org.junit.Before;
@@ -17,6 +18,7 @@ import java.io.InputStreamReader;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -37,7 +39,7 @@ public class CsvUtilTest {
 
     @Test
     public void testBasicPositive() {
-        Map<String, Map<String, String>> result = reader.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> result = reader.convertFileToFormattedMap(
                 "correct-formatted-file.csv",
                 new String[]{"id"},
                 " ",
@@ -49,15 +51,15 @@ public class CsvUtilTest {
         // Verification
         Assert.assertEquals(4, result.size());
         Assert.assertEquals(0, detectedErrors.size());
-        checkRow(result.get("11"), "Aaa", "12341", "simple");
-        checkRow(result.get("221"), "Bbbb", "111111", "great");
-        checkRow(result.get("2232133221"), "a", "333333", "small");
-        checkRow(result.get("3"), "hero", "1", "big");
+        checkRow(result.get(key("11")), "Aaa", "12341", "simple");
+        checkRow(result.get(key("221")), "Bbbb", "111111", "great");
+        checkRow(result.get(key("2232133221")), "a", "333333", "small");
+        checkRow(result.get(key("3")), "hero", "1", "big");
     }
 
     @Test
     public void testMultiKey() {
-        Map<String, Map<String, String>> result = reader.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> result = reader.convertFileToFormattedMap(
                 "correct-formatted-file.csv",
                 new String[]{"id", "name"},
                 " ",
@@ -69,15 +71,15 @@ public class CsvUtilTest {
         // Verification
         Assert.assertEquals(0, detectedErrors.size());
         Assert.assertEquals(4, result.size());
-        checkRow(result.get("11 Aaa"), "Aaa", "12341", "simple");
-        checkRow(result.get("221 Bbbb"), "Bbbb", "111111", "great");
-        checkRow(result.get("2232133221 a"), "a", "333333", "small");
-        checkRow(result.get("3 hero"), "hero", "1", "big");
+        checkRow(result.get(key("11", "Aaa")), "Aaa", "12341", "simple");
+        checkRow(result.get(key("221", "Bbbb")), "Bbbb", "111111", "great");
+        checkRow(result.get(key("2232133221", "a")), "a", "333333", "small");
+        checkRow(result.get(key("3", "hero")), "hero", "1", "big");
     }
 
     @Test
     public void testMultiKeySeparator() {
-        Map<String, Map<String, String>> result = reader.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> result = reader.convertFileToFormattedMap(
                 "correct-formatted-file.csv",
                 new String[]{"id", "name"},
                 "|",
@@ -89,15 +91,15 @@ public class CsvUtilTest {
         // Verification
         Assert.assertEquals(4, result.size());
         Assert.assertEquals(0, detectedErrors.size());
-        checkRow(result.get("11|Aaa"), "Aaa", "12341", "simple");
-        checkRow(result.get("221|Bbbb"), "Bbbb", "111111", "great");
-        checkRow(result.get("2232133221|a"), "a", "333333", "small");
-        checkRow(result.get("3|hero"), "hero", "1", "big");
+        checkRow(result.get(key("11", "Aaa")), "Aaa", "12341", "simple");
+        checkRow(result.get(key("221", "Bbbb")), "Bbbb", "111111", "great");
+        checkRow(result.get(key("2232133221", "a")), "a", "333333", "small");
+        checkRow(result.get(key("3", "hero")), "hero", "1", "big");
     }
 
     @Test
     public void testDuplicatedValues() {
-        Map<String, Map<String, String>> result = reader.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> result = reader.convertFileToFormattedMap(
                 "duplicated-lines-file.csv",
                 new String[]{"id"},
                 " ",
@@ -108,8 +110,8 @@ public class CsvUtilTest {
 
         // Verification
         Assert.assertEquals(2, result.size());
-        checkRow(result.get("221"), "Bbbb", "111111", "great");
-        checkRow(result.get("3"), "hero", "1", "big");
+        checkRow(result.get(key("221")), "Bbbb", "111111", "great");
+        checkRow(result.get(key("3")), "hero", "1", "big");
 
 
         checkDetectedError(
@@ -124,7 +126,7 @@ public class CsvUtilTest {
 
     @Test
     public void testDuplicatedValuesMultiKeys() {
-        Map<String, Map<String, String>> result = reader.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> result = reader.convertFileToFormattedMap(
                 "duplicated-lines-file.csv",
                 new String[]{"id", "name"},
                 " ",
@@ -135,8 +137,8 @@ public class CsvUtilTest {
 
         // Verification
         Assert.assertEquals(4, result.size());
-        checkRow(result.get("221 Bbbb"), "Bbbb", "111111", "great");
-        checkRow(result.get("3 hero"), "hero", "1", "big");
+        checkRow(result.get(key("221", "Bbbb")), "Bbbb", "111111", "great");
+        checkRow(result.get(key("3", "hero")), "hero", "1", "big");
 
         Assert.assertEquals(2, detectedErrors.size());
         checkDetectedError(
@@ -148,7 +150,7 @@ public class CsvUtilTest {
 
     @Test
     public void testDuplicatedValuesCompoundKeys() {
-        Map<String, Map<String, String>> result = reader.convertFileToFormattedMap(
+        Map<CompositeKey, Map<String, String>> result = reader.convertFileToFormattedMap(
                 "compound-keys-file.csv",
                 new String[]{"id"},
                 " ",
@@ -164,8 +166,8 @@ public class CsvUtilTest {
 
         // Verification
         Assert.assertEquals(2, result.size());
-        checkRow(result.get("11_03"), "Cccc", "432412341", null);
-        checkRow(result.get("221"), "Zzz", "111111", null);
+        checkRow(result.get(key("11_03")), "Cccc", "432412341", null);
+        checkRow(result.get(key("221")), "Zzz", "111111", null);
 
         Assert.assertEquals(6, detectedErrors.size());
         checkDetectedError(
@@ -194,6 +196,35 @@ public class CsvUtilTest {
         );
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingKeyColumn() {
+        reader.convertFileToFormattedMap(
+                "correct-formatted-file.csv",
+                new String[]{"id", "unknown"},
+                " ",
+                null,
+                null,
+                detectedErrors
+        );
+    }
+
+    @Test
+    public void testHeaderValidator() {
+        List<String> validatedColumns = new ArrayList<>();
+        reader.convertFileToFormattedMap(
+                "correct-formatted-file.csv",
+                new String[]{"id"},
+                " ",
+                null,
+                null,
+                detectedErrors,
+                header -> validatedColumns.add(header.toString())
+        );
+
+        // Verification
+        Assert.assertEquals(Collections.singletonList("[id, name, pas, object]"), validatedColumns);
+    }
+
     public static void mockCsvUtil(
             CsvUtil utilToMock,
             Class currentClass
@@ -228,4 +259,8 @@ public class CsvUtilTest {
         }
     }
 
+    private static CompositeKey key(String... values) {
+        return new CompositeKey(values, " ");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExternalCsvSorterTest {
+
+    @Spy
+    private CsvUtil csvUtil;
+
+    @Before
+    public void setup() throws IOException {
+        CsvUtilTest.mockCsvUtil(
+                csvUtil,
+                getClass()
+        );
+    }
+
+    @Test
+    public void testSortWithSeveralMergePasses() throws IOException {
+        ExternalCsvSorter sorter = new ExternalCsvSorter(csvUtil, 2, 2, null);
+
+        Path sortedFile = sorter.sort(
+                "duplicated-lines-file.csv",
+                new String[]{"id"},
+                " ",
+                null,
+                null
+        );
+
+        // Verification
+        List<String> lines = readLines(sortedFile, "id", "name");
+        Assert.assertEquals(
+                Arrays.asList("11 Aaa", "11 Aaa", "221 Bbbb", "2232133221 a", "2232133221 bb", "3 hero"),
+                lines
+        );
+        Files.delete(sortedFile);
+    }
+
+    @Test
+    public void testSortWithKeyComparator() throws IOException {
+        ExternalCsvSorter sorter = new ExternalCsvSorter(csvUtil, 3, 2, null);
+
+        Path sortedFile = sorter.sort(
+                "compound-keys-file.csv",
+                new String[]{"id"},
+                " ",
+                // Use only first part of key, order of lines with the same first part should not be changed
+                Comparator.comparing(key -> key.split("_")[0]),
+                null
+        );
+
+        // Verification
+        List<String> lines = readLines(sortedFile, "id", "name");
+        Assert.assertEquals(
+                Arrays.asList("11_01 Aaa", "11_021 Bbb", "11_03 Cccc", "12 Vvvv", "12_01 Nnnn", "12_1 Mmmm",
+                        "12_ Qqqq", "221 Zzz"),
+                lines
+        );
+        Files.delete(sortedFile);
+    }
+
+    private static List<String> readLines(Path sortedFile, String... columns) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (CSVParser parser = CsvUtil.openTemporaryFile(sortedFile)) {
+            for (CSVRecord line : parser) {
+                lines.add(CsvUtil.buildKey(line, columns, " ").toString());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,124 @@
+package net.hor1zont.csv.comparator.utils;
+
+import net.hor1zont.csv.comparator.storage.CompositeKey;
+import net.hor1zont.csv.comparator.twofiles.DetectedError;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class MappedCsvLoaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSameAsSequentialLoad() throws IOException {
+
+        // Preparation: quoted values with new lines and duplicated keys in different chunks
+        StringBuilder content = new StringBuilder("id,name,comment\r\n");
+        for (int i = 0; i < 200; i++) {
+            content.append(i % 70).append(",name-").append(i).append(",\"line 1\nline \"\"2\"\"\"\r\n");
+        }
+        File file = temporaryFolder.newFile("file.csv");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        String[] keys = {"id"};
+        List<DetectedError> expectedErrors = new ArrayList<>();
+        Map<CompositeKey, Map<String, String>> expected = new CsvUtil().convertFileToFormattedMap(
+                file.getPath(), keys, "", null, StandardCharsets.UTF_8, expectedErrors::add);
+
+        // Action: chunks are smaller than line
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        Map<CompositeKey, Map<String, String>> actual = new TreeMap<>();
+        MappedCsvLoader.load(file.toPath(), StandardCharsets.UTF_8, file.getPath(), keys, "", actual,
+                detectedErrors::add, null, 4, 16);
+
+        // Verification
+        Assert.assertEquals(60, expected.size());
+        Assert.assertEquals("line 1\nline \"2\"", actual.get(new CompositeKey(new String[]{"5"}, "")).get("comment"));
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(toCsvStrings(expectedErrors), toCsvStrings(detectedErrors));
+    }
+
+    @Test
+    public void testQuoteInNotQuotedValue() throws IOException {
+
+        // Preparation: the first quote is a usual char, quoted values with new lines are after it
+        StringBuilder content = new StringBuilder("id,name,comment\n");
+        content.append("0,5\" screen,\"\"\n");
+        for (int i = 1; i < 100; i++) {
+            content.append(i).append(",name-").append(i).append(",\"line 1\nline 2\"\n");
+        }
+        File file = temporaryFolder.newFile("file.csv");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        String[] keys = {"id"};
+        List<DetectedError> expectedErrors = new ArrayList<>();
+        Map<CompositeKey, Map<String, String>> expected = new CsvUtil().convertFileToFormattedMap(
+                file.getPath(), keys, "", null, StandardCharsets.UTF_8, expectedErrors::add);
+
+        // Action
+        List<DetectedError> detectedErrors = new ArrayList<>();
+        Map<CompositeKey, Map<String, String>> actual = new TreeMap<>();
+        MappedCsvLoader.load(file.toPath(), StandardCharsets.UTF_8, file.getPath(), keys, "", actual,
+                detectedErrors::add, null, 4, 16);
+
+        // Verification
+        Assert.assertEquals(100, expected.size());
+        Assert.assertEquals("5\" screen", actual.get(new CompositeKey(new String[]{"0"}, "")).get("name"));
+        Assert.assertEquals(expected, actual);
+        Assert.assertTrue(detectedErrors.isEmpty());
+    }
+
+    @Test
+    public void testChunkBordersDoNotDependOnThreads() throws IOException {
+
+        // Preparation: parts of file start in quoted and not quoted values
+        StringBuilder content = new StringBuilder("id,name,comment\r\n");
+        for (int i = 0; i < 100; i++) {
+            content.append(i).append(",\"name\n").append(i).append("\",\"\"\"quoted\"\"\",comment\r\n");
+        }
+        File file = temporaryFolder.newFile("file.csv");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            for (int chunkSize : new int[]{7, 16, 100, 1000}) {
+                List<Long> borders = MappedCsvLoader.findChunkBorders(channel, chunkSize, 1);
+
+                // Verification: every border is the end of record
+                Assert.assertEquals(borders, MappedCsvLoader.findChunkBorders(channel, chunkSize, 4));
+                Assert.assertEquals(Long.valueOf(17), borders.get(0));
+                Assert.assertEquals(Long.valueOf(content.length()), borders.get(borders.size() - 1));
+                for (Long border : borders) {
+                    Assert.assertTrue(content.substring(0, border.intValue()).endsWith(",comment\r\n")
+                            || border == 17);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSupportedFiles() throws IOException {
+        File file = temporaryFolder.newFile("file.csv");
+        Files.write(file.toPath(), "id\n1\n".getBytes(StandardCharsets.UTF_8));
+
+        // Verification
+        Assert.assertTrue(MappedCsvLoader.isSupported(file.toPath(), StandardCharsets.UTF_8));
+        Assert.assertTrue(MappedCsvLoader.isSupported(file.toPath(), null));
+        Assert.assertFalse(MappedCsvLoader.isSupported(file.toPath(), StandardCharsets.UTF_16));
+    }
+
+    private static List<String> toCsvStrings(List<DetectedError> detectedErrors) {
+        return detectedErrors.stream().map(DetectedError::toCSVString).collect(Collectors.toList());
+    }
+}
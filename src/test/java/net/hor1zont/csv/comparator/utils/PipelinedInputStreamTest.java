@@ -0,0 +1,116 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+public class PipelinedInputStreamTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSameBytes() throws IOException {
+
+        // Preparation: size of data is not multiple of chunk size
+        byte[] bytes = new byte[10_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ByteArrayOutputStream readBytes = new ByteArrayOutputStream();
+        try (InputStream inputStream = new PipelinedInputStream(new ByteArrayInputStream(bytes), 1024)) {
+            readBytes.write(inputStream.read());
+            byte[] buffer = new byte[700];
+            int count;
+            while ((count = inputStream.read(buffer)) >= 0) {
+                readBytes.write(buffer, 0, count);
+            }
+        }
+
+        // Verification
+        Assert.assertArrayEquals(bytes, readBytes.toByteArray());
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws IOException {
+        InputStream inputStream = new PipelinedInputStream(new ByteArrayInputStream(new byte[100_000]), 16);
+        Assert.assertEquals(0, inputStream.read());
+        inputStream.close();
+    }
+
+    @Test(timeout = 10_000)
+    public void testFailureOfSource() throws IOException {
+        InputStream source = new InputStream() {
+
+            @Override
+            public int read() {
+                throw new IllegalStateException("Corrupted source");
+            }
+        };
+        try (InputStream inputStream = new PipelinedInputStream(source, 16)) {
+            inputStream.read();
+            Assert.fail("Failure of source should be thrown by reading");
+        } catch (IOException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+            Assert.assertEquals("Corrupted source", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testReadMultiMemberGzipFile() throws IOException {
+
+        // Preparation: file is concatenation of two gzip members (e.g. result of 'cat a.gz b.gz')
+        File file = temporaryFolder.newFile("file.csv.gz");
+        try (OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+            writeGzipMember(outputStream, "id,name\n1,first\n");
+            writeGzipMember(outputStream, "2,second\n");
+        }
+        List<String> names = new ArrayList<>();
+        try (CSVParser parser = new CsvUtil().openCsvFile(file.getPath(), StandardCharsets.UTF_8)) {
+            for (CSVRecord record : parser) {
+                names.add(record.get("name"));
+            }
+        }
+
+        // Verification
+        Assert.assertTrue(CsvUtil.isCompressed(file.toPath()));
+        Assert.assertEquals(2, names.size());
+        Assert.assertEquals("first", names.get(0));
+        Assert.assertEquals("second", names.get(1));
+    }
+
+    @Test
+    public void testReadNotCompressedFile() throws IOException {
+        File file = temporaryFolder.newFile("file.csv");
+        Files.write(file.toPath(), "id,name\n1,first\n".getBytes(StandardCharsets.UTF_8));
+        try (CSVParser parser = new CsvUtil().openCsvFile(file.getPath(), StandardCharsets.UTF_8)) {
+
+            // Verification
+            Assert.assertFalse(CsvUtil.isCompressed(file.toPath()));
+            Assert.assertEquals("first", parser.getRecords().get(0).get("name"));
+        }
+    }
+
+    private static void writeGzipMember(OutputStream outputStream, String text) throws IOException {
+        ByteArrayOutputStream member = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(member)) {
+            gzipOutputStream.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        member.writeTo(outputStream);
+    }
+}
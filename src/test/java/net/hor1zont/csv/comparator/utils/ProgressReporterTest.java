@@ -0,0 +1,59 @@
+package net.hor1zont.csv.comparator.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ProgressReporterTest {
+
+    @Test
+    public void testTaskDescription() {
+        ProgressReporter progressReporter = new ProgressReporter(TimeUnit.HOURS.toMillis(1));
+        AtomicLong lines = new AtomicLong();
+        AtomicLong done = new AtomicLong();
+        try (ProgressReporter.Task task = progressReporter.startTask("load fileA.csv", lines::get, done::get, 1000)) {
+            lines.set(250);
+            done.set(500);
+            String description = task.describe(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+
+            // Verification: half of file is read, so the same time is expected for the rest of file
+            Assert.assertTrue(description, description.startsWith("load fileA.csv: 250 lines, "));
+            Assert.assertTrue(description, description.contains(", 50% (about 500 lines), ETA 00:00:1"));
+        } finally {
+            progressReporter.close();
+        }
+    }
+
+    @Test
+    public void testUnknownTotal() {
+        ProgressReporter progressReporter = new ProgressReporter(TimeUnit.HOURS.toMillis(1));
+        try (ProgressReporter.Task task = progressReporter.startTask("compare", () -> 7, () -> 7,
+                ProgressReporter.UNKNOWN)) {
+            String description = task.describe(System.nanoTime());
+
+            // Verification
+            Assert.assertTrue(description, description.startsWith("compare: 7 lines, "));
+            Assert.assertFalse(description, description.contains("ETA"));
+        } finally {
+            progressReporter.close();
+        }
+    }
+
+    @Test
+    public void testCountingReader() throws IOException {
+        CountingReader reader = new CountingReader(new StringReader("id,name\n1,Alice\n"));
+        char[] chars = new char[4];
+        Assert.assertEquals(4, reader.read(chars, 0, chars.length));
+        Assert.assertEquals('i', chars[0]);
+        reader.read();
+        Assert.assertEquals(5, reader.getCount());
+        while (reader.read(chars, 0, chars.length) > 0) {
+            Assert.assertTrue(reader.getCount() <= 16);
+        }
+        Assert.assertEquals(16, reader.getCount());
+    }
+}